@@ -0,0 +1,35 @@
+package com.digitalstudio.app.benchmark;
+
+import com.digitalstudio.app.DigitalStudioApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Boots the real application context against an in-memory H2 database (MySQL
+// mode) so service benchmarks run through the same proxies, aspect and
+// repositories as production, without needing a MySQL server.
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String name) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(DigitalStudioApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + name
+                                + ";MODE=MySQL;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.file.name=target/jmh/benchmark.log",
+                        // Keep the aspect on its production code path but don't let
+                        // console output dominate the measurement
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.digitalstudio.app=WARN");
+    }
+}
@@ -0,0 +1,70 @@
+package com.digitalstudio.app.benchmark;
+
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.repository.CustomerRepository;
+import com.digitalstudio.app.service.CustomerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CustomerService.getNextSequence: called whenever the customer form opens
+// ("next ID" preview for a browser instance). Today's range is pre-seeded so the
+// MAX(id) lookup and reservation check see a realistic table.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerSequenceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("customers");
+        customerService = context.getBean(CustomerService.class);
+
+        long prefix = Long.parseLong(LocalDate.now().format(DateTimeFormatter.ofPattern("yyMMdd")));
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            Customer customer = new Customer();
+            customer.setId(prefix * 1000 + i);
+            customer.setName("Customer " + i);
+            customer.setMobile(String.valueOf(9000000000L + i));
+            customers.add(customer);
+        }
+        context.getBean(CustomerRepository.class).saveAll(customers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getNextSequenceReserved() {
+        return customerService.getNextSequence("benchmark-instance");
+    }
+
+    @Benchmark
+    public int getNextSequenceAnonymous() {
+        return customerService.getNextSequence(null);
+    }
+}
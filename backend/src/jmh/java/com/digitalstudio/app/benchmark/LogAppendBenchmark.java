@@ -0,0 +1,73 @@
+package com.digitalstudio.app.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.digitalstudio.app.config.MemoryAppender;
+import com.digitalstudio.app.service.LogService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// MemoryAppender -> LogService.addLog, the path every log line takes. The appender
+// is given the unproxied LogService, exactly as LogService.init() registers it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogAppendBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MemoryAppender appender;
+    private LoggingEvent event;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("logs");
+        LogService logService = (LogService) AopProxyUtils.getSingletonTarget(context.getBean(LogService.class));
+
+        LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
+        appender = new MemoryAppender(logService);
+        appender.setContext(lc);
+        appender.start();
+
+        event = new LoggingEvent(LogAppendBenchmark.class.getName(), lc.getLogger("benchmark"), Level.INFO,
+                "Enter: getAllOrders() [GET /api/orders] with argument[s] = {}",
+                null, new Object[] { "[2025-01-01, 2025-01-31, null, 0, 20]" });
+        event.getFormattedMessage();
+        event.getThreadName();
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.stop();
+        context.close();
+    }
+
+    @Benchmark
+    public void append() {
+        appender.doAppend(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendContended() {
+        appender.doAppend(event);
+    }
+}
@@ -0,0 +1,70 @@
+package com.digitalstudio.app.benchmark;
+
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.model.PhotoOrder;
+import com.digitalstudio.app.repository.PhotoOrderRepository;
+import com.digitalstudio.app.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// OrderService.updateStatus: load, parse statusHistoryJson, roll back / upsert,
+// re-serialize and save. Alternates between two statuses so every call rewrites
+// the history the way the status dropdown does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderStatusBenchmark {
+
+    private static final String[] STATUSES = { "Lab Processing", "Lab Received" };
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private UUID orderId;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("orders");
+        orderService = context.getBean(OrderService.class);
+
+        Customer customer = new Customer();
+        customer.setId(250101001L);
+        customer.setName("Benchmark Customer");
+        customer.setMobile("9000000001");
+
+        PhotoOrder order = new PhotoOrder();
+        order.setCustomer(customer); // persisted through the cascade
+        order.setUploadId("F250101001.jpg");
+        order.setStatus("Lab Processing");
+        order.setStatusHistoryJson("[{\"status\":\"Pending\",\"timestamp\":\"2025-01-01T10:00:00\"},"
+                + "{\"status\":\"Lab Processing\",\"timestamp\":\"2025-01-01T10:05:00\"}]");
+        orderId = context.getBean(PhotoOrderRepository.class).save(order).getOrderId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PhotoOrder updateStatus() {
+        next ^= 1;
+        return orderService.updateStatus(orderId, STATUSES[next]);
+    }
+}
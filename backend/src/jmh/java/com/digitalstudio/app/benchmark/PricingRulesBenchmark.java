@@ -0,0 +1,97 @@
+package com.digitalstudio.app.benchmark;
+
+import com.digitalstudio.app.dto.AddonPricingRule;
+import com.digitalstudio.app.model.Addon;
+import com.digitalstudio.app.model.PhotoItem;
+import com.digitalstudio.app.repository.AddonRepository;
+import com.digitalstudio.app.repository.PhotoItemRepository;
+import com.digitalstudio.app.service.ConfigurationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ConfigurationService.getAllPricingRules: loads every photo item and addon and
+// parses each item's pricingConfigurations JSON. Called by the order form.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingRulesBenchmark {
+
+    @Param({ "10", "50" })
+    public int photoItems;
+
+    @Param({ "8" })
+    public int rulesPerItem;
+
+    private ConfigurableApplicationContext context;
+    private ConfigurationService configurationService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("pricing");
+        configurationService = context.getBean(ConfigurationService.class);
+
+        List<Addon> addons = new ArrayList<>();
+        for (String name : new String[] { "Lamination", "Frame", "Soft Copy", "Urgent" }) {
+            Addon addon = new Addon();
+            addon.setName(name);
+            addons.add(addon);
+        }
+        addons = context.getBean(AddonRepository.class).saveAll(addons);
+
+        List<PhotoItem> items = new ArrayList<>();
+        for (int i = 0; i < photoItems; i++) {
+            PhotoItem item = new PhotoItem();
+            item.setName("Item " + i);
+            StringBuilder json = new StringBuilder("[");
+            for (int r = 0; r < rulesPerItem; r++) {
+                if (r > 0) {
+                    json.append(',');
+                }
+                json.append("{\"addonIds\":[");
+                // Rule r uses the addons whose bit is set in r
+                boolean first = true;
+                for (int a = 0; a < addons.size(); a++) {
+                    if ((r & (1 << a)) != 0) {
+                        json.append(first ? "" : ",").append('"').append(addons.get(a).getId()).append('"');
+                        first = false;
+                    }
+                }
+                json.append("],\"regularBasePrice\":").append(20 + r)
+                        .append(",\"regularCustomerPrice\":").append(25 + r)
+                        .append(",\"instantBasePrice\":").append(30 + r)
+                        .append(",\"instantCustomerPrice\":").append(35 + r).append('}');
+            }
+            item.setPricingConfigurations(json.append(']').toString());
+            items.add(item);
+        }
+        context.getBean(PhotoItemRepository.class).saveAll(items);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<AddonPricingRule> getAllPricingRules() {
+        return configurationService.getAllPricingRules();
+    }
+}
@@ -0,0 +1,167 @@
+package com.digitalstudio.app.benchmark;
+
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.model.PhotoOrder;
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.CustomerRepository;
+import com.digitalstudio.app.repository.PhotoOrderRepository;
+import com.digitalstudio.app.repository.UploadRepository;
+import com.digitalstudio.app.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The hot filters covered by db/migration/V1__hot_column_indexes.sql, on a
+// seeded dataset (a year of orders and uploads), with and without the indexes.
+// Setup prints the EXPLAIN plan of each query so the index use can be checked:
+//   mvn -P jmh test-compile exec:exec -Djmh.args="SchemaIndex -f 1 -wi 2 -i 3"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaIndexBenchmark {
+
+    private static final int CUSTOMERS = 20_000;
+    private static final int ORDERS = 50_000;
+    private static final int UPLOADS = 50_000;
+
+    private static final String[] V1_INDEXES = {
+            "idx_photo_orders_created_at", "idx_bill_payments_created_at", "idx_money_transfers_created_at",
+            "idx_service_orders_created_at", "idx_customers_created_at", "idx_uploads_created_at",
+            "idx_customers_mobile", "idx_photo_orders_upload_id", "idx_bill_payments_upload_id",
+            "idx_money_transfers_upload_id" };
+
+    @Param({ "true", "false" })
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CustomerRepository customerRepository;
+    private PhotoOrderRepository photoOrderRepository;
+    private UploadRepository uploadRepository;
+    private TransactionTemplate transactionTemplate;
+    private LocalDate day;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("schema-" + indexed);
+        orderService = context.getBean(OrderService.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        photoOrderRepository = context.getBean(PhotoOrderRepository.class);
+        uploadRepository = context.getBean(UploadRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        LocalDateTime now = LocalDateTime.now();
+        day = now.toLocalDate().minusDays(30);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            rows.add(new Object[] { 250101000L + i, "Customer " + i, String.valueOf(9000000000L + i),
+                    Timestamp.valueOf(now.minusMinutes(i * 26L)) });
+        }
+        jdbc.batchUpdate("INSERT INTO customers (customer_id, name, mobile, created_at) VALUES (?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (int i = 0; i < ORDERS; i++) {
+            rows.add(new Object[] { UUID.randomUUID(), 250101000L + i % CUSTOMERS, uploadId(i), "Pending",
+                    i % 3 == 0, Timestamp.valueOf(now.minusMinutes(i * 10L)) });
+        }
+        jdbc.batchUpdate("INSERT INTO photo_orders (order_id, customer_id, upload_id, status, is_instant, created_at)"
+                + " VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (int i = 0; i < UPLOADS; i++) {
+            rows.add(new Object[] { uploadId(i), "/data/" + uploadId(i) + ".jpg", ".jpg", "IMG_" + i + ".jpg",
+                    "PHOTO_ORDERS", Timestamp.valueOf(now.minusMinutes(i * 10L)) });
+        }
+        jdbc.batchUpdate("INSERT INTO uploads (upload_id, upload_path, extension, original_filename, uploaded_from,"
+                + " created_at, is_available, mark_deleted) VALUES (?, ?, ?, ?, ?, ?, true, false)", rows);
+
+        if (!indexed) {
+            for (String index : V1_INDEXES) {
+                jdbc.execute("DROP INDEX IF EXISTS " + index);
+            }
+        }
+        jdbc.execute("ANALYZE");
+
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        explain(jdbc, "orders by date", "SELECT * FROM photo_orders WHERE created_at >= ? AND created_at < ?"
+                + " ORDER BY created_at DESC LIMIT 20", from, to);
+        explain(jdbc, "customer by mobile", "SELECT * FROM customers WHERE mobile = ?", "9000012345");
+        explain(jdbc, "unlink upload", "UPDATE photo_orders SET upload_id = NULL WHERE upload_id = ?", "F-missing");
+        explain(jdbc, "uploads by date", "SELECT * FROM uploads WHERE created_at >= ? AND created_at < ?"
+                + " ORDER BY created_at DESC LIMIT 20", from, to);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<PhotoOrder> listOrdersForDay() {
+        return orderService.getAllOrders(day, day, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Optional<Customer> findCustomerByMobile() {
+        next = (next + 7919) % CUSTOMERS;
+        return customerRepository.findByMobile(String.valueOf(9000000000L + next));
+    }
+
+    // The delete path's unlink for an upload no order references
+    @Benchmark
+    public void unlinkUpload() {
+        transactionTemplate.executeWithoutResult(status -> photoOrderRepository.unlinkUpload("F-missing"));
+    }
+
+    @Benchmark
+    public Page<Upload> listUploadsForDay() {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        Specification<Upload> spec = (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("createdAt"), from),
+                cb.lessThan(root.get("createdAt"), to));
+        return uploadRepository.findAll(spec, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")));
+    }
+
+    private static String uploadId(int i) {
+        return String.format("F25%07d", i);
+    }
+
+    private void explain(JdbcTemplate jdbc, String label, String sql, Object... args) {
+        String plan = jdbc.queryForList("EXPLAIN " + sql, String.class, args).get(0);
+        System.out.println("[indexed=" + indexed + "] " + label + ":\n" + plan.replaceAll("(?m)^", "    "));
+    }
+}
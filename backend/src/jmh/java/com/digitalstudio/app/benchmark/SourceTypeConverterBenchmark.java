@@ -0,0 +1,37 @@
+package com.digitalstudio.app.benchmark;
+
+import com.digitalstudio.app.model.SourceType;
+import com.digitalstudio.app.model.SourceTypeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Runs once per loaded Upload / FileDeleteQueue row. The enum-name case is the
+// common one; display names and the legacy "Photo Order" value come from old rows.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceTypeConverterBenchmark {
+
+    @Param({ "PHOTO_ORDERS", "Money Transfer", "Photo Order", "unknown" })
+    public String dbValue;
+
+    private final SourceTypeConverter converter = new SourceTypeConverter();
+
+    @Benchmark
+    public SourceType convertToEntityAttribute() {
+        return converter.convertToEntityAttribute(dbValue);
+    }
+}
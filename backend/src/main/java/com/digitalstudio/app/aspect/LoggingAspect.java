@@ -1,7 +1,14 @@
 package com.digitalstudio.app.aspect;
 
+import com.digitalstudio.app.config.TracingProperties;
+import com.digitalstudio.app.metrics.LatencyRegistry;
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.Arrays;
+
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -9,9 +16,13 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.multipart.MultipartFile;
 
 @Aspect
 @Component
@@ -19,6 +30,18 @@ public class LoggingAspect {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    private final TracingProperties tracing;
+    private final TracingStats stats;
+    private final LatencyRegistry latency;
+    private final Level level;
+
+    public LoggingAspect(TracingProperties tracing, TracingStats stats, LatencyRegistry latency) {
+        this.tracing = tracing;
+        this.stats = stats;
+        this.latency = latency;
+        this.level = parseLevel(tracing.getLevel());
+    }
+
     // Define Pointcuts for Service, Repository, and Controller packages
     @Pointcut("execution(* com.digitalstudio.app.service..*(..))")
     public void servicePointcut() {
@@ -32,55 +55,174 @@ public class LoggingAspect {
     public void controllerPointcut() {
     }
 
-    // Combine them
-    @Pointcut("servicePointcut() || repositoryPointcut() || controllerPointcut()")
-    public void applicationPackagePointcut() {
+    // One advice per layer so sampling rates apply per package
+    @Around("controllerPointcut()")
+    public Object logController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return logAround(joinPoint, "controller");
+    }
+
+    @Around("servicePointcut()")
+    public Object logService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return logAround(joinPoint, "service");
+    }
+
+    @Around("repositoryPointcut()")
+    public Object logRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return logAround(joinPoint, "repository");
     }
 
-    @Around("applicationPackagePointcut()")
-    public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+    private Object logAround(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        long start = System.nanoTime();
         Logger log = LoggerFactory.getLogger(joinPoint.getTarget().getClass());
+        boolean traced = shouldTrace(layer) && log.isEnabledForLevel(level);
         String methodName = joinPoint.getSignature().getName();
 
-        String urlInfo = "";
-        // Only check request context for Controllers
-        if (joinPoint.getTarget().getClass().getSimpleName().endsWith("Controller")) {
-            try {
-                ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder
-                        .getRequestAttributes();
-                if (attributes != null) {
-                    HttpServletRequest request = attributes.getRequest();
-                    urlInfo = " [" + request.getMethod() + " " + request.getRequestURI() + "]";
+        if (traced) {
+            String urlInfo = "";
+            // Only check request context for Controllers
+            if ("controller".equals(layer)) {
+                try {
+                    ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder
+                            .getRequestAttributes();
+                    if (attributes != null) {
+                        HttpServletRequest request = attributes.getRequest();
+                        urlInfo = " [" + request.getMethod() + " " + request.getRequestURI() + "]";
+                    }
+                } catch (Exception e) {
+                    // ignore if no thread context
                 }
-            } catch (Exception e) {
-                // ignore if no thread context
             }
-        }
 
-        // Log Entry
-        log.info("Enter: {}(){}{} with argument[s] = {}", methodName, urlInfo,
-                !urlInfo.isEmpty() ? " " : "", // separator
-                Arrays.toString(joinPoint.getArgs()));
+            // Log Entry
+            log.atLevel(level).log("Enter: {}(){}{} with argument[s] = {}", methodName, urlInfo,
+                    !urlInfo.isEmpty() ? " " : "", // separator
+                    summarizeArgs(joinPoint.getArgs()));
+        }
 
+        long beforeProceed = System.nanoTime();
+        long proceedNanos = 0;
+        boolean failed = true;
         try {
             Object result = joinPoint.proceed();
+            proceedNanos = System.nanoTime() - beforeProceed;
+            failed = false;
 
-            if (result != null) {
-                if (isPrimitiveOrWrapper(result.getClass()) || result instanceof String) {
-                    log.info("Exit: {}() with result = {}", methodName, result);
+            if (traced) {
+                if (result != null) {
+                    if (isPrimitiveOrWrapper(result.getClass()) || result instanceof String) {
+                        log.atLevel(level).log("Exit: {}() with result = {}", methodName, summarize(result));
+                    } else {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Exit: {}() with result = {}", methodName, summarize(result));
+                        }
+                        log.atLevel(level).log("Exit: {}() (Result details in DEBUG)", methodName);
+                    }
                 } else {
-                    log.debug("Exit: {}() with result = {}", methodName, result);
-                    log.info("Exit: {}() (Result details in DEBUG)", methodName);
+                    log.atLevel(level).log("Exit: {}() with result = null", methodName);
                 }
-            } else {
-                log.info("Exit: {}() with result = null", methodName);
             }
 
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), methodName);
+            proceedNanos = System.nanoTime() - beforeProceed;
+            log.error("Illegal argument: {} in {}()", summarizeArgs(joinPoint.getArgs()), methodName);
             throw e;
+        } catch (Throwable t) {
+            proceedNanos = System.nanoTime() - beforeProceed;
+            throw t;
+        } finally {
+            if (tracing.isLatency()) {
+                recordLatency(joinPoint, layer, proceedNanos, failed);
+            }
+            stats.record(traced, System.nanoTime() - start - proceedNanos);
+        }
+    }
+
+    // Histogram per method, plus one per route for controller calls. Not sampled:
+    // the histograms are cheap and percentiles need every call.
+    private void recordLatency(ProceedingJoinPoint joinPoint, String layer, long nanos, boolean failed) {
+        latency.recordMethod(layer + ":" + ownerName(joinPoint, layer) + "." + joinPoint.getSignature().getName(),
+                nanos, failed);
+        if ("controller".equals(layer)
+                && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            latency.recordRoute(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()),
+                    nanos, failed);
+        }
+    }
+
+    // Repository targets are all SimpleJpaRepository; name them by their interface
+    private String ownerName(ProceedingJoinPoint joinPoint, String layer) {
+        if ("repository".equals(layer)) {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+            if (interfaces.length > 0) {
+                return interfaces[0].getSimpleName();
+            }
+        }
+        return joinPoint.getTarget().getClass().getSimpleName();
+    }
+
+    private boolean shouldTrace(String layer) {
+        if (!tracing.isEnabled()) {
+            return false;
+        }
+        if ("repository".equals(layer) && !tracing.isRepositories()) {
+            return false;
+        }
+        double rate = tracing.sampleRate(layer);
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (RuntimeException e) {
+            return Level.INFO;
+        }
+    }
+
+    private String summarizeArgs(Object[] args) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(summarize(args[i]));
         }
+        return sb.append(']').toString();
+    }
+
+    // Cheap, length-capped rendering. Entities and other complex objects are shown
+    // by type only: their toString() walks whole object graphs.
+    private String summarize(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum || value instanceof UUID
+                || value instanceof Temporal) {
+            return cap(value.toString());
+        }
+        if (value instanceof Collection<?> c) {
+            return value.getClass().getSimpleName() + "(size=" + c.size() + ")";
+        }
+        if (value instanceof Map<?, ?> m) {
+            return value.getClass().getSimpleName() + "(size=" + m.size() + ")";
+        }
+        if (value instanceof MultipartFile f) {
+            return "MultipartFile(" + cap(String.valueOf(f.getOriginalFilename())) + ", " + f.getSize() + " bytes)";
+        }
+        if (value.getClass().isArray()) {
+            return value.getClass().getComponentType().getSimpleName() + "[" + java.lang.reflect.Array.getLength(value)
+                    + "]";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private String cap(String text) {
+        int max = tracing.getMaxArgLength();
+        return text.length() <= max ? text : text.substring(0, max) + "...(" + text.length() + " chars)";
     }
 
     private boolean isPrimitiveOrWrapper(Class<?> type) {
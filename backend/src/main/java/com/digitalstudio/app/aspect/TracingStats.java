@@ -0,0 +1,52 @@
+package com.digitalstudio.app.aspect;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for LoggingAspect's own cost: how many calls it saw, how many it
+// traced, and the time spent in the aspect itself (excluding the method).
+@Component
+public class TracingStats {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder traced = new LongAdder();
+    private final LongAdder overheadNanos = new LongAdder();
+    private final LongAdder tracedOverheadNanos = new LongAdder();
+
+    void record(boolean wasTraced, long overhead) {
+        calls.increment();
+        overheadNanos.add(overhead);
+        if (wasTraced) {
+            traced.increment();
+            tracedOverheadNanos.add(overhead);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long totalCalls = calls.sum();
+        long tracedCalls = traced.sum();
+        long untracedCalls = totalCalls - tracedCalls;
+        long totalOverhead = overheadNanos.sum();
+        long tracedOverhead = tracedOverheadNanos.sum();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("calls", totalCalls);
+        result.put("traced", tracedCalls);
+        result.put("sampledOut", untracedCalls);
+        result.put("avgOverheadNanos", totalCalls > 0 ? totalOverhead / totalCalls : 0);
+        result.put("avgTracedOverheadNanos", tracedCalls > 0 ? tracedOverhead / tracedCalls : 0);
+        result.put("avgUntracedOverheadNanos",
+                untracedCalls > 0 ? (totalOverhead - tracedOverhead) / untracedCalls : 0);
+        return result;
+    }
+
+    public void reset() {
+        calls.reset();
+        traced.reset();
+        overheadNanos.reset();
+        tracedOverheadNanos.reset();
+    }
+}
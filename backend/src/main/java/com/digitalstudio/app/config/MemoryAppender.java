@@ -1,10 +1,12 @@
 package com.digitalstudio.app.config;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import com.digitalstudio.app.service.LogService;
 
-public class MemoryAppender extends AppenderBase<ILoggingEvent> {
+// Unsynchronized: the ring buffer does its own (short) locking, so logging
+// threads don't serialize on the appender itself
+public class MemoryAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
 
     private final LogService logService;
 
@@ -16,6 +18,7 @@ public class MemoryAppender extends AppenderBase<ILoggingEvent> {
     protected void append(ILoggingEvent event) {
         if (logService != null) {
             logService.addLog(
+                    event.getTimeStamp(),
                     event.getLevel().toString(),
                     event.getFormattedMessage(),
                     event.getThreadName());
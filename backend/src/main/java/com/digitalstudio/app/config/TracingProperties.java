@@ -0,0 +1,37 @@
+package com.digitalstudio.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Settings for the method tracing done by LoggingAspect (app.tracing.*)
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+
+    private boolean enabled = true;
+
+    // Level used for Enter/Exit lines (result details always go to DEBUG)
+    private String level = "INFO";
+
+    // Switch off repository tracing entirely (most of the volume)
+    private boolean repositories = true;
+
+    // Longest rendering of a single argument or result
+    private int maxArgLength = 200;
+
+    // Feed per-method and per-route latency histograms (/api/metrics/latency)
+    private boolean latency = true;
+
+    // Fraction of calls traced per layer: controller, service, repository
+    private Map<String, Double> sampleRates = new HashMap<>();
+
+    public double sampleRate(String layer) {
+        Double rate = sampleRates.get(layer);
+        return rate != null ? rate : 1.0;
+    }
+}
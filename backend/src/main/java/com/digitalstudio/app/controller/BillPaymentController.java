@@ -27,6 +27,24 @@ public class BillPaymentController {
         return ResponseEntity.ok(billPaymentService.getAllTransactions(startDate, endDate, search, types, page, size));
     }
 
+    // Keyset pagination: start with ?cursor= and pass nextCursor back for the next page
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> getTransactionsAfter(
+            @RequestParam(required = false) java.time.LocalDate startDate,
+            @RequestParam(required = false) java.time.LocalDate endDate,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) java.util.List<String> types,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(billPaymentService.getTransactionsAfter(startDate, endDate, search, types, cursor,
+                    size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping
     public ResponseEntity<BillPaymentTransaction> createTransaction(@RequestBody BillPaymentTransaction transaction) {
         return ResponseEntity.ok(billPaymentService.createTransaction(transaction));
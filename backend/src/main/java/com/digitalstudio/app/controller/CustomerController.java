@@ -35,6 +35,20 @@ public class CustomerController {
                 PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"))));
     }
 
+    // Keyset pagination: start with ?cursor= and pass nextCursor back for the next page
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> getCustomersAfter(
+            @RequestParam(required = false) String search,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(customerService.getCustomersAfter(search, cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/sequence")
     public ResponseEntity<Map<String, Integer>> getUniqueSequence(
             @org.springframework.web.bind.annotation.RequestParam String instanceId) {
@@ -3,13 +3,9 @@ package com.digitalstudio.app.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -40,14 +36,50 @@ public class FileController {
     @Autowired
     private CustomerRepository customerRepository;
 
-    private String getUploadDir() {
-        String path = configurationService.getValue("STORAGE_PATH");
-        if (path == null || path.trim().isEmpty()) {
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UploadIdAllocator uploadIdAllocator;
+
+    @Autowired
+    private UploadEnrichmentService uploadEnrichmentService;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CursorPaginationService cursorPaginationService;
+
+    @Autowired
+    private AvailabilityScanner availabilityScanner;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private BatchUploadService batchUploadService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private StorageMigrationService storageMigrationService;
+
+    private Path getUploadDir() {
+        Path path = configurationService.getPath("STORAGE_PATH");
+        if (path == null) {
             throw new RuntimeException("STORAGE_PATH_NOT_CONFIGURED");
         }
-        if (!path.endsWith("/") && !path.endsWith("\\")) {
-            path += "/";
-        }
         return path;
     }
 
@@ -59,198 +91,326 @@ public class FileController {
         int currentAttempt = 0;
         Exception lastException = null;
 
-        while (currentAttempt < maxRetries) {
-            currentAttempt++;
-            try {
-                String uploadDir = getUploadDir();
-                // Ensure directory exists
-                File dir = new File(uploadDir);
-                if (!dir.exists()) {
-                    dir.mkdirs();
-                }
+        boolean dedup = blobStorageService.isEnabled();
+        BlobStorageService.StagedBlob staged = null;
+
+        try {
+            while (currentAttempt < maxRetries) {
+                currentAttempt++;
+                try {
+                    // Directory is created by the storage service if missing
+                    Path uploadDir = getUploadDir();
+
+                    // Generate Generated ID: FYYMMDDNNN
+                    // We move generation INSIDE the loop to get a fresh ID on retry
+                    String generatedId = uploadIdAllocator.nextId();
+
+                    // Extension
+                    String originalName = file.getOriginalFilename();
+                    String ext = "";
+                    if (originalName != null && originalName.lastIndexOf(".") != -1) {
+                        ext = originalName.substring(originalName.lastIndexOf("."));
+                    }
 
-                // Generate Generated ID: FYYMMDDNNN
-                // We move generation INSIDE the loop to get a fresh ID on retry
-                String generatedId = generateFileId();
+                    String finalFilename = generatedId + ext;
+                    Path path = storageLayout.pathFor(uploadDir, generatedId, finalFilename);
 
-                // Extension
-                String originalName = file.getOriginalFilename();
-                String ext = "";
-                if (originalName != null && originalName.lastIndexOf(".") != -1) {
-                    ext = originalName.substring(originalName.lastIndexOf("."));
-                }
+                    // Deduplicated storage: hash while staging (once, reused across ID retries)
+                    // and point the upload at the shared blob
+                    if (dedup && staged == null) {
+                        staged = blobStorageService.stage(file, uploadDir);
+                    }
+                    if (staged != null) {
+                        path = blobStorageService.blobPath(uploadDir, staged.hash());
+                    }
 
-                String finalFilename = generatedId + ext;
-                Path path = Paths.get(uploadDir + finalFilename);
-
-                // Save to DB Object first
-                Upload upload = new Upload();
-                upload.setUploadId(generatedId);
-                upload.setOriginalFilename(originalName);
-                upload.setExtension(ext);
-                upload.setUploadPath(path.toString());
-                upload.setIsAvailable(true); // Default to true (available) as we write file immediately
-
-                // Resolve Source Type
-                if (source != null) {
-                    com.digitalstudio.app.model.SourceType sourceType = com.digitalstudio.app.model.SourceType
-                            .fromString(source);
-                    if (sourceType == null) {
-                        try {
-                            sourceType = com.digitalstudio.app.model.SourceType
-                                    .valueOf(source.toUpperCase().replace(" ", "_"));
-                        } catch (IllegalArgumentException e) {
+                    // Save to DB Object first
+                    Upload upload = new Upload();
+                    upload.setUploadId(generatedId);
+                    upload.setOriginalFilename(originalName);
+                    upload.setExtension(ext);
+                    upload.setUploadPath(path.toString());
+                    upload.setFileHash(staged != null ? staged.hash() : null);
+                    upload.setIsAvailable(true); // Default to true (available) as we write file immediately
+
+                    upload.setUploadedFrom(parseSource(source));
+
+                    // Attempt to Save DB -> This might throw ConstraintViolation if ID exists.
+                    // persist, not save(): with an assigned ID save() merges and would
+                    // overwrite the existing row instead of failing
+                    uploadRepository.persistAll(List.of(upload));
+
+                    // If DB Save succeeds, Write File
+                    // (We do this AFTER DB save or concurrently, but if DB fails we don't want
+                    // orphan file efficiently.
+                    // However, we need 'path' for DB.
+                    // Optimally: Write File -> Save DB. If DB error (duplicate), delete file?
+                    // Or: Random ID? No, sequential.
+                    // If we Save DB first, we reserve the ID. Then we write file.
+                    // If write fails, we should delete DB entry?
+                    // Actually, existing logic wrote file first.
+                    // Problem: If we write file F...014, then DB fail, we have orphan 014 file.
+                    // Next retry gets 015.
+                    // Orphan 014 is acceptable garbage or we can try to delete it in catch.
+
+                    // Streamed to disk through a fixed buffer (never fully loaded on heap)
+                    FileStorageService.StoreResult stored;
+                    boolean reused = false;
+                    try {
+                        if (staged != null) {
+                            stored = staged.stored();
+                            reused = blobStorageService.commit(staged, path);
+                        } else {
+                            stored = fileStorageService.store(file, path);
                         }
+                    } catch (IOException | RuntimeException e) {
+                        // No file behind the row: drop it, as the batch and chunked paths do
+                        uploadRepository.deleteById(generatedId);
+                        throw e;
                     }
-                    upload.setUploadedFrom(sourceType);
-                }
 
-                // Attempt to Save DB -> This might throw ConstraintViolation if ID exists
-                uploadRepository.save(upload);
+                    // Pre-build the preview (a fresh ID has no thumbnails to evict)
+                    thumbnailService.generateInBackground(generatedId);
+                    searchIndexService.index(upload);
 
-                // If DB Save succeeds, Write File
-                // (We do this AFTER DB save or concurrently, but if DB fails we don't want
-                // orphan file efficiently.
-                // However, we need 'path' for DB.
-                // Optimally: Write File -> Save DB. If DB error (duplicate), delete file?
-                // Or: Random ID? No, sequential.
-                // If we Save DB first, we reserve the ID. Then we write file.
-                // If write fails, we should delete DB entry?
-                // Actually, existing logic wrote file first.
-                // Problem: If we write file F...014, then DB fail, we have orphan 014 file.
-                // Next retry gets 015.
-                // Orphan 014 is acceptable garbage or we can try to delete it in catch.
-
-                Files.write(path, file.getBytes());
-
-                // Response
-                Map<String, String> response = new HashMap<>();
-                response.put("filename", finalFilename);
-                response.put("uploadId", generatedId + ext);
-                response.put("originalName", originalName);
-                response.put("path", path.toString());
-
-                return ResponseEntity.ok(response);
-
-            } catch (org.springframework.dao.DataIntegrityViolationException e) {
-                // Duplicate Key -> Retry
-                lastException = e;
-                System.out.println("Duplicate Upload ID encountered (Attempt " + currentAttempt + "). Retrying...");
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException ie) {
-                }
-                continue;
-            } catch (RuntimeException e) {
-                if ("STORAGE_PATH_NOT_CONFIGURED".equals(e.getMessage())) {
-                    return ResponseEntity.status(503).body(Map.of("error", "STORAGE_PATH_NOT_CONFIGURED"));
+                    // Response
+                    Map<String, String> response = new HashMap<>();
+                    response.put("filename", finalFilename);
+                    response.put("uploadId", generatedId + ext);
+                    response.put("originalName", originalName);
+                    response.put("path", path.toString());
+                    response.put("bytes", String.valueOf(stored.bytes()));
+                    response.put("bytesPerSecond", String.valueOf(stored.bytesPerSecond()));
+                    response.put("heapPeakBytes", String.valueOf(stored.heapPeakBytes()));
+                    response.put("deduplicated", String.valueOf(reused));
+
+                    return ResponseEntity.ok(response);
+
+                } catch (org.springframework.dao.DataIntegrityViolationException e) {
+                    // Duplicate Key -> Someone else wrote this ID, catch up with the DB and retry
+                    lastException = e;
+                    System.out.println("Duplicate Upload ID encountered (Attempt " + currentAttempt + "). Retrying...");
+                    uploadIdAllocator.resync();
+                    continue;
+                } catch (RuntimeException e) {
+                    if ("STORAGE_PATH_NOT_CONFIGURED".equals(e.getMessage())) {
+                        return ResponseEntity.status(503).body(Map.of("error", "STORAGE_PATH_NOT_CONFIGURED"));
+                    }
+                    e.printStackTrace();
+                    return ResponseEntity.status(500).body(Map.of("error", "Failed to upload: " + e.getMessage()));
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    return ResponseEntity.status(500)
+                            .body(Map.of("error", "Failed to upload (Critical): " + e.getMessage()));
                 }
-                e.printStackTrace();
-                return ResponseEntity.status(500).body(Map.of("error", "Failed to upload: " + e.getMessage()));
-            } catch (Throwable e) {
-                e.printStackTrace();
-                return ResponseEntity.status(500)
-                        .body(Map.of("error", "Failed to upload (Critical): " + e.getMessage()));
             }
+
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", "Failed to generate unique ID after retries. Last Error: "
+                            + (lastException != null ? lastException.getMessage() : "Unknown")));
+        } finally {
+            // Nothing left behind if the upload failed before the blob was committed
+            if (staged != null) {
+                blobStorageService.discard(staged);
+            }
+        }
+    }
+
+    // Many files in one request: one block of IDs, one batched INSERT, files written concurrently.
+    // Returns one result per file (uploadId or error) in request order.
+    @PostMapping("/upload/batch")
+    public ResponseEntity<Map<String, Object>> uploadBatch(@RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "source", required = false) String source) {
+        try {
+            List<Map<String, Object>> results = batchUploadService.uploadAll(files, parseSource(source));
+            long failed = results.stream().filter(r -> r.containsKey("error")).count();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("uploaded", results.size() - failed);
+            response.put("failed", failed);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            if ("STORAGE_PATH_NOT_CONFIGURED".equals(e.getMessage())) {
+                return ResponseEntity.status(503).body(Map.of("error", "STORAGE_PATH_NOT_CONFIGURED"));
+            }
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to upload: " + e.getMessage()));
+        }
+    }
+
+    // --- Resumable chunked uploads ---
+    // POST /upload/sessions {filename, size, source?, chunkSize?} -> session with chunkSize / chunkCount
+    // PUT  /upload/sessions/{id}?offset=N  (raw chunk body)        -> status incl. missingChunks
+    // GET  /upload/sessions/{id}                                   -> status, to resume after a drop
+    // POST /upload/sessions/{id}/complete                          -> same response as /upload
+
+    @PostMapping("/upload/sessions")
+    public ResponseEntity<Map<String, Object>> startUploadSession(@RequestBody Map<String, Object> body) {
+        return handleSession(() -> {
+            Object size = body.get("size");
+            Object chunkSize = body.get("chunkSize");
+            if (!(size instanceof Number)) {
+                throw new IllegalArgumentException("size is required");
+            }
+            return chunkedUploadService.start((String) body.get("filename"), ((Number) size).longValue(),
+                    parseSource((String) body.get("source")),
+                    chunkSize instanceof Number ? ((Number) chunkSize).intValue() : null);
+        });
+    }
+
+    @GetMapping("/upload/sessions/{id}")
+    public ResponseEntity<Map<String, Object>> getUploadSession(@PathVariable java.util.UUID id) {
+        return handleSession(() -> chunkedUploadService.getStatus(id));
+    }
+
+    @PutMapping("/upload/sessions/{id}")
+    public ResponseEntity<Map<String, Object>> putUploadChunk(@PathVariable java.util.UUID id,
+            @RequestParam long offset, jakarta.servlet.http.HttpServletRequest request) {
+        return handleSession(() -> chunkedUploadService.writeChunk(id, offset, request.getInputStream()));
+    }
+
+    @PostMapping("/upload/sessions/{id}/complete")
+    public ResponseEntity<Map<String, Object>> completeUploadSession(@PathVariable java.util.UUID id) {
+        return handleSession(() -> chunkedUploadService.complete(id));
+    }
+
+    @DeleteMapping("/upload/sessions/{id}")
+    public ResponseEntity<Map<String, Object>> abortUploadSession(@PathVariable java.util.UUID id) {
+        return handleSession(() -> {
+            chunkedUploadService.abort(id);
+            return Map.of("message", "Upload session aborted");
+        });
+    }
+
+    private interface SessionCall {
+        Map<String, Object> call() throws IOException;
+    }
+
+    private ResponseEntity<Map<String, Object>> handleSession(SessionCall call) {
+        try {
+            return ResponseEntity.ok(call.call());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            if ("UPLOAD_SESSION_NOT_FOUND".equals(e.getMessage())) {
+                return ResponseEntity.status(404).body(Map.of("error", "UPLOAD_SESSION_NOT_FOUND"));
+            }
+            if ("STORAGE_PATH_NOT_CONFIGURED".equals(e.getMessage())) {
+                return ResponseEntity.status(503).body(Map.of("error", "STORAGE_PATH_NOT_CONFIGURED"));
+            }
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to upload: " + e.getMessage()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to upload: " + e.getMessage()));
         }
+    }
 
-        return ResponseEntity.status(500)
-                .body(Map.of("error", "Failed to generate unique ID after retries. Last Error: "
-                        + (lastException != null ? lastException.getMessage() : "Unknown")));
+    // Accepts the display name ("Bill Payment") or the enum name ("BILL_PAYMENT")
+    private static com.digitalstudio.app.model.SourceType parseSource(String source) {
+        if (source == null) {
+            return null;
+        }
+        com.digitalstudio.app.model.SourceType sourceType = com.digitalstudio.app.model.SourceType.fromString(source);
+        if (sourceType == null) {
+            try {
+                sourceType = com.digitalstudio.app.model.SourceType.valueOf(source.toUpperCase().replace(" ", "_"));
+            } catch (IllegalArgumentException e) {
+            }
+        }
+        return sourceType;
     }
 
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<?> serveFile(@PathVariable String filename) {
+    public ResponseEntity<?> serveFile(@PathVariable String filename,
+            jakarta.servlet.http.HttpServletRequest request,
+            jakarta.servlet.http.HttpServletResponse response) {
         try {
-            // 1. Mandatory: Serve using the absolute path from DB
             String uploadId = filename;
             if (filename.contains(".")) {
                 uploadId = filename.substring(0, filename.lastIndexOf("."));
             }
 
-            // Strict lookup by ID
-            Optional<Upload> upload = uploadRepository.findById(uploadId);
-            if (upload.isPresent()) {
-                String dbPath = upload.get().getUploadPath();
-                if (dbPath != null && !dbPath.isEmpty()) {
-                    Path path = Paths.get(dbPath);
-                    org.springframework.core.io.Resource resource = new org.springframework.core.io.UrlResource(
-                            path.toUri());
-                    if (resource.exists() || resource.isReadable()) {
-                        String contentType = "application/octet-stream";
-                        try {
-                            contentType = Files.probeContentType(path);
-                        } catch (IOException ex) {
-                        }
-
-                        return ResponseEntity.ok()
-                                .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
-                                        "inline; filename=\"" + resource.getFilename() + "\"")
-                                .header(org.springframework.http.HttpHeaders.CONTENT_TYPE, contentType)
-                                .body(resource);
-                    }
-                }
+            FileServingService.ServedFile file = fileServingService.resolve(uploadId);
+            if (file == null) {
+                // If DB record missing or file not found at specific path -> 404
+                return ResponseEntity.notFound().build();
             }
 
-            // If DB record missing or file not found at specific path -> 404
-            return ResponseEntity.notFound().build();
+            // Headers, 304s, ranges and the body are written straight to the response
+            fileServingService.send(file, request, response);
+            return null;
         } catch (RuntimeException e) {
             if ("STORAGE_PATH_NOT_CONFIGURED".equals(e.getMessage())) {
                 return ResponseEntity.status(503).body("STORAGE_PATH_NOT_CONFIGURED"); // Simple string or JSON
             }
             return ResponseEntity.status(500).build();
-        } catch (java.net.MalformedURLException e) {
-            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            // Client went away mid-transfer
+            return null;
         }
     }
 
-    @Autowired
-    private PhotoOrderRepository photoOrderRepository;
+    // Small preview for listing grids; falls back to the original for non-images
+    @GetMapping("/{filename}/thumb")
+    public ResponseEntity<?> serveThumbnail(@PathVariable String filename,
+            @RequestParam(defaultValue = "" + ThumbnailService.DEFAULT_WIDTH) int w,
+            jakarta.servlet.http.HttpServletRequest request,
+            jakarta.servlet.http.HttpServletResponse response) {
+        String uploadId = UploadEnrichmentService.stripExtension(filename);
+        try {
+            ThumbnailService.Thumbnail thumbnail = thumbnailService.getThumbnail(uploadId, w);
+            if (thumbnail == null) {
+                return serveFile(filename, request, response);
+            }
+            if (new org.springframework.web.context.request.ServletWebRequest(request, response)
+                    .checkNotModified(thumbnail.etag())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(org.springframework.http.CacheControl.maxAge(java.time.Duration.ofDays(365))
+                            .cachePrivate().immutable())
+                    .contentType(thumbnail.mediaType())
+                    .body(thumbnail.data());
+        } catch (RuntimeException e) {
+            if ("STORAGE_PATH_NOT_CONFIGURED".equals(e.getMessage())) {
+                return ResponseEntity.status(503).body("STORAGE_PATH_NOT_CONFIGURED");
+            }
+            return ResponseEntity.status(500).build();
+        }
+    }
 
     @PostMapping("/check-availability")
     public ResponseEntity<Map<String, Object>> checkAvailability(
             @RequestParam(required = false, defaultValue = "false") boolean force) {
-        // Here we just check existing file paths as stored in DB.
-        // We don't necessarily need getUploadDir() unless we want to validate they are
-        // inside it.
-        // But the requirement is just checking existence.
-
-        int availableCount = 0;
-        int missingCount = 0;
-        List<Upload> uploads = uploadRepository.findAll();
-
-        for (Upload u : uploads) {
-            // Optimization: If previously checked and missing, skip unless forced
-            if (!force && Boolean.FALSE.equals(u.getIsAvailable())) {
-                missingCount++;
-                continue;
-            }
+        // Checks the file paths stored in DB; a second call while a scan runs waits for it
+        return ResponseEntity.ok(availabilityScanner.scan(force));
+    }
 
-            try {
-                Path path = Paths.get(u.getUploadPath());
-                boolean exists = Files.exists(path);
-                u.setIsAvailable(exists); // true = available, false = missing/removed
-                if (exists) {
-                    availableCount++;
-                } else {
-                    missingCount++;
-                }
-            } catch (Exception e) {
-                u.setIsAvailable(false); // Flag as missing on error
-                missingCount++;
-            }
-        }
-        uploadRepository.saveAll(uploads);
+    @PostMapping("/storage/migrate")
+    public Map<String, Object> migrateStorageLayout() {
+        // Moves existing files to the configured STORAGE_LAYOUT in the background
+        storageMigrationService.start();
+        return storageMigrationService.getStatus();
+    }
 
-        return ResponseEntity.ok(Map.of(
-                "message", "Availability check complete",
-                "available", availableCount,
-                "missing", missingCount,
-                "total", uploads.size()));
+    @GetMapping("/storage/migrate/status")
+    public Map<String, Object> getStorageMigrationStatus() {
+        return storageMigrationService.getStatus();
     }
 
-    @Autowired
-    private com.digitalstudio.app.repository.BillPaymentRepository billPaymentRepository;
+    @GetMapping("/dedup/stats")
+    public Map<String, Object> getDedupStats() {
+        return blobStorageService.getStats();
+    }
+
+    @GetMapping("/check-availability/status")
+    public Map<String, Object> getAvailabilityProgress() {
+        return availabilityScanner.getProgress();
+    }
 
     @Autowired
     private com.digitalstudio.app.service.FileCleanupService fileCleanupService;
@@ -258,6 +418,26 @@ public class FileController {
     @Autowired
     private com.digitalstudio.app.repository.FileDeleteQueueRepository fileDeleteQueueRepository;
 
+    @GetMapping("/cleanup/summary")
+    public Map<String, Object> getCleanupSummary() {
+        return fileCleanupService.getLastRunSummary();
+    }
+
+    @GetMapping("/cleanup/history")
+    public List<com.digitalstudio.app.model.CleanupRun> getCleanupHistory() {
+        return fileCleanupService.getRunHistory();
+    }
+
+    @PostMapping("/cleanup/run")
+    public ResponseEntity<?> runCleanup() {
+        com.digitalstudio.app.model.CleanupRun run = fileCleanupService.runCleanup("MANUAL");
+        if (run == null) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Cleanup is already running"));
+        }
+        return ResponseEntity.ok(run);
+    }
+
     @GetMapping("/queue")
     public List<Map<String, Object>> getDeleteQueue() {
         // Sync Step
@@ -313,7 +493,44 @@ public class FileController {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         PageRequest pageRequest = PageRequest.of(page, size, sort);
 
-        org.springframework.data.jpa.domain.Specification<Upload> spec = (root, query, cb) -> {
+        Page<Upload> uploadsPage = uploadRepository.findAll(
+                uploadFilter(search, startDate, endDate, excludedSources), pageRequest);
+        List<Upload> uploads = uploadsPage.getContent();
+
+        // Link customers from orders, bills, transfers and service orders (page IDs only)
+        uploadEnrichmentService.linkCustomers(uploads);
+
+        return uploadsPage;
+    }
+
+    // Keyset pagination: start with ?cursor= and pass nextCursor back for the next page
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> getUploadsAfter(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) List<String> excludedSources) {
+        try {
+            // Newest first only; sortBy/sortDir are not supported in cursor mode
+            String totalKey = withTotal
+                    ? "files|" + search + "|" + startDate + "|" + endDate + "|" + excludedSources
+                    : null;
+            com.digitalstudio.app.dto.CursorPage<Upload> result = cursorPaginationService.fetch(uploadRepository,
+                    uploadFilter(search, startDate, endDate, excludedSources), "uploadId", Upload::getCreatedAt,
+                    Upload::getUploadId, cursor, size, totalKey);
+            uploadEnrichmentService.linkCustomers(result.getContent());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private org.springframework.data.jpa.domain.Specification<Upload> uploadFilter(String search, String startDate,
+            String endDate, List<String> excludedSources) {
+        return (root, query, cb) -> {
             List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
 
             if (search != null && !search.isEmpty()) {
@@ -354,51 +571,6 @@ public class FileController {
 
             return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
         };
-
-        Page<Upload> uploadsPage = uploadRepository.findAll(spec, pageRequest);
-        List<Upload> uploads = uploadsPage.getContent();
-
-        // Fetch all orders to link customers
-        List<PhotoOrder> orders = photoOrderRepository.findAll();
-        List<com.digitalstudio.app.model.BillPaymentTransaction> billPayments = billPaymentRepository.findAll();
-
-        // Map UploadID -> List of Customer IDs
-        Map<String, List<String>> uploadCustomerMap = new HashMap<>();
-
-        // 1. Link Photo Orders
-        for (PhotoOrder order : orders) {
-            String uId = order.getUploadId();
-            if (uId != null && order.getCustomer() != null && order.getCustomer().getId() != null) {
-                if (uId.contains(".")) {
-                    uId = uId.substring(0, uId.lastIndexOf("."));
-                }
-                uploadCustomerMap.computeIfAbsent(uId, k -> new ArrayList<>())
-                        .add(String.valueOf(order.getCustomer().getId()));
-            }
-        }
-
-        // 2. Link Bill Payments
-        for (com.digitalstudio.app.model.BillPaymentTransaction bp : billPayments) {
-            String uId = bp.getUploadId();
-            if (uId != null && bp.getCustomer() != null && bp.getCustomer().getId() != null) {
-                if (uId.contains(".")) {
-                    uId = uId.substring(0, uId.lastIndexOf("."));
-                }
-                uploadCustomerMap.computeIfAbsent(uId, k -> new ArrayList<>())
-                        .add(String.valueOf(bp.getCustomer().getId()));
-            }
-        }
-
-        // Populate transient field
-        for (Upload upload : uploads) {
-            List<String> ids = uploadCustomerMap.getOrDefault(upload.getUploadId(), new ArrayList<>());
-            if (upload.getLinkedCustomer() != null) {
-                ids.add(String.valueOf(upload.getLinkedCustomer().getId()));
-            }
-            upload.setCustomerIds(ids.stream().distinct().collect(java.util.stream.Collectors.toList()));
-        }
-
-        return uploadsPage;
     }
 
     @GetMapping("/lookup/{id}")
@@ -415,33 +587,6 @@ public class FileController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    private synchronized String generateFileId() throws IOException {
-        LocalDate now = LocalDate.now();
-        String dateStr = now.format(DateTimeFormatter.ofPattern("yyMMdd"));
-        String prefix = "F" + dateStr;
-
-        String maxId = uploadRepository.findMaxUploadIdByPrefix(prefix);
-
-        if (maxId != null) {
-            try {
-                // Extract last 3 digits: F251230005 -> 005
-                // Assuming format is always Prefix + 3 digits.
-                // If ID has extension or suffix, logic needs to be robust.
-                // But DB stores pure ID in `uploadId` (e.g. F251230005).
-                if (maxId.length() >= 3) {
-                    String seqStr = maxId.substring(maxId.length() - 3);
-                    int seq = Integer.parseInt(seqStr);
-                    return prefix + String.format("%03d", seq + 1);
-                }
-            } catch (Exception e) {
-                // Fallback or log error
-                e.printStackTrace();
-            }
-        }
-
-        return prefix + "001";
-    }
-
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteFile(@PathVariable String id, @RequestParam(required = false) String remarks) {
         try {
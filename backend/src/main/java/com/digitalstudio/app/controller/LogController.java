@@ -1,5 +1,6 @@
 package com.digitalstudio.app.controller;
 
+import com.digitalstudio.app.aspect.TracingStats;
 import com.digitalstudio.app.service.LogService;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,14 +12,32 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 public class LogController {
 
     private final LogService logService;
+    private final TracingStats tracingStats;
 
-    public LogController(LogService logService) {
+    public LogController(LogService logService, TracingStats tracingStats) {
         this.logService = logService;
+        this.tracingStats = tracingStats;
     }
 
+    // Resume with ?since=<seq> (or the standard Last-Event-ID header) to receive
+    // only the events missed while disconnected
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamLogs() {
-        return logService.subscribe();
+    public SseEmitter streamLogs(@RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        long resumeFrom = since != null ? since : 0;
+        if (since == null && lastEventId != null) {
+            try {
+                resumeFrom = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // Unknown ID -> full history
+            }
+        }
+        return logService.subscribe(resumeFrom);
+    }
+
+    @GetMapping("/stream/stats")
+    public java.util.Map<String, Object> getStreamStats() {
+        return logService.getBroadcastStats();
     }
 
     @PostMapping("/clear")
@@ -31,4 +50,16 @@ public class LogController {
     public java.util.List<com.digitalstudio.app.service.LogService.LogEntry> getRecentLogs() {
         return logService.getRecentLogs();
     }
+
+    // Per-call cost of the LoggingAspect itself (see app.tracing.* properties)
+    @GetMapping("/tracing")
+    public java.util.Map<String, Object> getTracingStats() {
+        return tracingStats.snapshot();
+    }
+
+    @PostMapping("/tracing/reset")
+    public ResponseEntity<Void> resetTracingStats() {
+        tracingStats.reset();
+        return ResponseEntity.ok().build();
+    }
 }
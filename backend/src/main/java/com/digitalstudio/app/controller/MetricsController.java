@@ -0,0 +1,30 @@
+package com.digitalstudio.app.controller;
+
+import com.digitalstudio.app.metrics.LatencyRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private LatencyRegistry latencyRegistry;
+
+    // p50/p95/p99/max and call counts per route and per method, slowest first.
+    // ?layer=controller|service|repository narrows the method list.
+    @GetMapping("/latency")
+    public Map<String, Object> getLatency(@RequestParam(required = false) String layer,
+            @RequestParam(defaultValue = "0") int limit) {
+        return latencyRegistry.snapshot(layer != null && !layer.isEmpty() ? layer + ":" : null, limit);
+    }
+
+    @PostMapping("/latency/reset")
+    public ResponseEntity<Void> resetLatency() {
+        latencyRegistry.reset();
+        return ResponseEntity.ok().build();
+    }
+}
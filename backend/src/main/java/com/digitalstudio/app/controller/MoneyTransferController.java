@@ -31,6 +31,24 @@ public class MoneyTransferController {
         return ResponseEntity.ok(moneyTransferService.getAllTransfers(startDate, endDate, search, types, page, size));
     }
 
+    // Keyset pagination: start with ?cursor= and pass nextCursor back for the next page
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> getTransfersAfter(
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(moneyTransferService.getTransfersAfter(startDate, endDate, search, types, cursor,
+                    size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping
     public ResponseEntity<MoneyTransfer> createTransfer(@RequestBody MoneyTransfer transfer) {
         return ResponseEntity.ok(moneyTransferService.createTransfer(transfer));
@@ -49,6 +49,25 @@ public class OrderController {
         return orderService.getAllOrders(startDate, endDate, search, instant, regular, page, size);
     }
 
+    // Keyset pagination: start with ?cursor= and pass nextCursor back for the next page
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> getOrdersAfter(
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Boolean instant,
+            @RequestParam(required = false) Boolean regular,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersAfter(startDate, endDate, search, instant, regular, cursor,
+                    size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}/status")
     public PhotoOrder updateStatus(@PathVariable UUID id, @RequestParam String status) {
         return orderService.updateStatus(id, status);
@@ -3,6 +3,8 @@ package com.digitalstudio.app.controller;
 import com.digitalstudio.app.repository.CustomerRepository;
 import com.digitalstudio.app.repository.PaymentRepository;
 import com.digitalstudio.app.repository.PhotoOrderRepository;
+import com.digitalstudio.app.service.CustomerIndex;
+import com.digitalstudio.app.service.SearchIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -24,17 +26,26 @@ public class ResetController {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private CustomerIndex customerIndex;
+
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
     @DeleteMapping("/reset")
     public ResponseEntity<String> resetData() {
         try {
             // Delete all orders (This handles payments usually via cascade or we delete separately)
             photoOrderRepository.deleteAll();
+            searchIndexService.clear(SearchIndexService.Type.ORDER);
             
             // Delete all payments explicitly if needed (safe to call even if empty)
             paymentRepository.deleteAll();
             
             // Delete all customers
             customerRepository.deleteAll();
+            customerIndex.clear();
             
             return ResponseEntity.ok("Data Reset Successful");
         } catch (Exception e) {
@@ -0,0 +1,40 @@
+package com.digitalstudio.app.controller;
+
+import com.digitalstudio.app.service.SearchIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Global search across orders, bills, transfers, service orders and uploads
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "http://localhost:5173")
+public class SearchController {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @GetMapping
+    public ResponseEntity<?> search(
+            @RequestParam(name = "q", defaultValue = "") String query,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Set<SearchIndexService.Type> filter = EnumSet.noneOf(SearchIndexService.Type.class);
+        if (types != null) {
+            for (String type : types) {
+                try {
+                    filter.add(SearchIndexService.Type.valueOf(type.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "Unknown type: " + type));
+                }
+            }
+        }
+        return ResponseEntity.ok(searchIndexService.search(query, filter, page, size));
+    }
+}
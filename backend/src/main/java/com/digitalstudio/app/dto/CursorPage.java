@@ -0,0 +1,17 @@
+package com.digitalstudio.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+// One page of a keyset-paginated listing (?cursor=). Pass nextCursor back as
+// 'cursor' for the following page; there is no page count.
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null on the last page
+    private Long approximateTotal; // Only when requested (withTotal=true); cached, may lag behind
+}
@@ -0,0 +1,106 @@
+package com.digitalstudio.app.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram with log-linear buckets (HdrHistogram-style).
+//
+// Values are recorded in microseconds. 0-15us get one bucket each; above that
+// every power of two is split into 8 sub-buckets, so a reported percentile is
+// within ~12.5% of the real value. Buckets are LongAdders, which stripe under
+// contention instead of making every request thread CAS the same counter.
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40; // ~12 days in us, far past any request
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - 4 + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos, boolean failed) {
+        long micros = Math.max(0, nanos / 1_000);
+        buckets[bucketIndex(micros)].increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        // Count is taken from the same pass over the buckets, so percentiles stay
+        // consistent while other threads keep recording
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        long max = maxMicros.get();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", total);
+        result.put("errors", errors.sum());
+        result.put("meanMs", total > 0 ? toMillis(totalMicros.sum() / total) : 0.0);
+        result.put("p50Ms", toMillis(percentile(counts, total, 0.50, max)));
+        result.put("p95Ms", toMillis(percentile(counts, total, 0.95, max)));
+        result.put("p99Ms", toMillis(percentile(counts, total, 0.99, max)));
+        result.put("maxMs", toMillis(max));
+        result.put("totalMs", toMillis(totalMicros.sum()));
+        return result;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + sub) * width) + width - 1;
+    }
+
+    private static double toMillis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
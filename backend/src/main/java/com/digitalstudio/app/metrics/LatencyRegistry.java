@@ -0,0 +1,58 @@
+package com.digitalstudio.app.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Latency histograms per HTTP route ("GET /api/files/{id}") and per traced
+// method ("service:OrderService.getAllOrders"), fed by LoggingAspect.
+//
+// Lives outside the service/repository/controller packages on purpose: the
+// aspect calls it on every advised method and must not advise it in turn.
+@Component
+public class LatencyRegistry {
+
+    private final Map<String, LatencyHistogram> routes = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> methods = new ConcurrentHashMap<>();
+
+    public void recordRoute(String route, long nanos, boolean failed) {
+        routes.computeIfAbsent(route, k -> new LatencyHistogram()).record(nanos, failed);
+    }
+
+    public void recordMethod(String method, long nanos, boolean failed) {
+        methods.computeIfAbsent(method, k -> new LatencyHistogram()).record(nanos, failed);
+    }
+
+    // Slowest first (by p99); 'prefix' filters methods by layer, e.g. "repository:"
+    public Map<String, Object> snapshot(String prefix, int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("routes", rank(routes, null, limit));
+        result.put("methods", rank(methods, prefix, limit));
+        return result;
+    }
+
+    public void reset() {
+        routes.clear();
+        methods.clear();
+    }
+
+    private List<Map<String, Object>> rank(Map<String, LatencyHistogram> histograms, String prefix, int limit) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            if (prefix != null && !entry.getKey().startsWith(prefix)) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", entry.getKey());
+            row.putAll(entry.getValue().snapshot());
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparingDouble((Map<String, Object> r) -> (Double) r.get("p99Ms")).reversed());
+        return limit > 0 && rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+}
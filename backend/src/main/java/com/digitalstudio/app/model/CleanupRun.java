@@ -0,0 +1,56 @@
+package com.digitalstudio.app.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One row per file cleanup run (scheduled, catch-up after downtime or manual)
+@Entity
+@Data
+@Table(name = "cleanup_runs") // idx_cleanup_runs_started_at: db/migration V4
+public class CleanupRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // SCHEDULED, CATCH_UP or MANUAL
+    @Column(name = "trigger_type", nullable = false)
+    private String triggerType;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "soft_deleted")
+    private Integer softDeleted;
+
+    // e.g. "BILL_PAYMENT=120, UPLOADS=0"
+    @Column(name = "soft_deleted_by_source", columnDefinition = "TEXT")
+    private String softDeletedBySource;
+
+    @Column(name = "hard_deleted")
+    private Integer hardDeleted;
+
+    @Column(name = "delete_failures")
+    private Integer deleteFailures;
+
+    // Abandoned chunked upload sessions removed
+    @Column(name = "expired_upload_sessions")
+    private Integer expiredUploadSessions;
+
+    // Cold uploads gzipped or re-encoded by CompressionService
+    @Column(name = "compressed")
+    private Integer compressed;
+
+    @Column(name = "bytes_saved")
+    private Long bytesSaved;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+}
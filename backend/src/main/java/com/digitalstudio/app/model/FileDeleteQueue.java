@@ -6,7 +6,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "file_delete_queue")
+@Table(name = "file_delete_queue") // idx_file_delete_queue_soft_delete_time: db/migration V4
 @Data
 public class FileDeleteQueue {
 
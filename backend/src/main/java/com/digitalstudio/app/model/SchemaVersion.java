@@ -0,0 +1,31 @@
+package com.digitalstudio.app.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// One row per applied db/migration script (see SchemaMigrationRunner)
+@Entity
+@Data
+@Table(name = "schema_version")
+public class SchemaVersion {
+    @Id
+    private Integer version;
+
+    @Column(nullable = false)
+    private String description;
+
+    // e.g. "V1__hot_column_indexes.sql"
+    @Column(nullable = false)
+    private String script;
+
+    // CRC32 of the script contents
+    @Column(nullable = false)
+    private Long checksum;
+
+    @Column(name = "installed_on", nullable = false)
+    private LocalDateTime installedOn;
+
+    @Column(name = "execution_ms")
+    private Long executionMs;
+}
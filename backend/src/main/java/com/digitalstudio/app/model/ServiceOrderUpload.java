@@ -0,0 +1,24 @@
+package com.digitalstudio.app.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.util.UUID;
+
+// One row per file of a service order, normalized from ServiceOrder.uploadIdsJson
+// so uploads can be matched to service orders with an indexed IN query.
+// Maintained by ServiceOrderUploadService; indexes in db/migration V3.
+@Entity
+@Data
+@Table(name = "service_order_uploads")
+public class ServiceOrderUpload {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "service_order_id", nullable = false)
+    private UUID serviceOrderId;
+
+    // Without extension, as in Upload.uploadId
+    @Column(name = "upload_id", nullable = false, length = 64)
+    private String uploadId;
+}
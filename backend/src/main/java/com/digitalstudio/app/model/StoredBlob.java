@@ -0,0 +1,27 @@
+package com.digitalstudio.app.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+// A deduplicated file under STORAGE_PATH/.blobs, shared by every Upload with this hash
+@Entity
+@Data
+@Table(name = "stored_blobs")
+public class StoredBlob {
+    @Id
+    @Column(length = 64)
+    private String hash; // SHA-256, hex
+
+    @Column(nullable = false)
+    private Long size;
+
+    // Uploads pointing at this blob; the file is removed when it drops to zero
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+// Indexes are created by db/migration scripts (V1, V4), not by ddl-auto
 @Table(name = "uploads")
 @Data
 public class Upload {
@@ -25,8 +26,15 @@ public class Upload {
     @Convert(converter = SourceTypeConverter.class)
     private SourceType uploadedFrom; // e.g., BILL_PAYMENT
 
-    // Hash calculation removed
-    // private String fileHash;
+    // SHA-256 of the content when stored deduplicated; uploadPath then points at the
+    // shared blob (see BlobStorageService). Null for plain per-upload files.
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+
+    // How the file on disk was compacted (see CompressionService): null = not examined yet,
+    // "identity" = left as uploaded, "gzip" = gzipped (decompressed when served), "jpeg" = re-encoded
+    @Column(length = 16)
+    private String codec;
 
     private Boolean isAvailable = true; // True if file exists on disk, False if removed/missing
 
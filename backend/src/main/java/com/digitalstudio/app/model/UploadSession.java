@@ -0,0 +1,47 @@
+package com.digitalstudio.app.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A resumable chunked upload in progress (see ChunkedUploadService)
+@Entity
+@Data
+@Table(name = "upload_sessions") // idx_upload_sessions_updated_at: db/migration V4
+public class UploadSession {
+    @Id
+    private UUID id; // Assigned up front; it also names the partial file
+
+    private String originalFilename;
+    private String extension;
+
+    @Convert(converter = SourceTypeConverter.class)
+    private SourceType uploadedFrom;
+
+    @Column(nullable = false)
+    private Long totalSize;
+
+    @Column(nullable = false)
+    private Integer chunkSize;
+
+    // One bit per chunk, set once the chunk is fully written
+    @Column(name = "received_chunks", length = 8192)
+    private byte[] receivedChunks;
+
+    private Long receivedBytes = 0L;
+
+    // Pre-sized file under STORAGE_PATH/.partial
+    @Column(nullable = false)
+    private String partialPath;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -18,4 +18,21 @@ public interface BillPaymentRepository
 
         @Query("SELECT DISTINCT new map(b.billId as billId, b.billCustomerName as billCustomerName, b.operator as operator, b.transactionType as transactionType) FROM BillPaymentTransaction b WHERE b.customer.mobile = :mobile ORDER BY b.createdAt DESC")
         java.util.List<java.util.Map<String, String>> findSuggestions(String mobile);
+
+        @Query("SELECT new map(b.uploadId as uploadId, b.customer.id as customerId) FROM BillPaymentTransaction b WHERE b.uploadId IN :uploadIds")
+        java.util.List<java.util.Map<String, Object>> findCustomerLinksByUploadIdIn(
+                        java.util.Collection<String> uploadIds);
+
+        // Keyset page of the fields SearchIndexService indexes
+        @Query("SELECT new map(b.id as id, b.createdAt as createdAt, b.status as status, b.transactionType as transactionType, "
+                        + "b.operator as operator, b.billId as billId, b.billCustomerName as billCustomerName, b.uploadId as uploadId, "
+                        + "c.id as customerId, c.name as customerName, c.mobile as customerMobile) FROM BillPaymentTransaction b LEFT JOIN b.customer c WHERE b.id > :after ORDER BY b.id")
+        java.util.List<java.util.Map<String, Object>> findSearchPage(UUID after,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Same fields for one customer's transactions (re-index after a rename)
+        @Query("SELECT new map(b.id as id, b.createdAt as createdAt, b.status as status, b.transactionType as transactionType, "
+                        + "b.operator as operator, b.billId as billId, b.billCustomerName as billCustomerName, b.uploadId as uploadId, "
+                        + "c.id as customerId, c.name as customerName, c.mobile as customerMobile) FROM BillPaymentTransaction b JOIN b.customer c WHERE c.id = :customerId")
+        java.util.List<java.util.Map<String, Object>> findSearchRowsByCustomerId(Long customerId);
 }
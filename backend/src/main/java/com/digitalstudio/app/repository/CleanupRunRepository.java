@@ -0,0 +1,16 @@
+package com.digitalstudio.app.repository;
+
+import com.digitalstudio.app.model.CleanupRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CleanupRunRepository extends JpaRepository<CleanupRun, UUID> {
+    Optional<CleanupRun> findTopByOrderByStartedAtDesc();
+
+    List<CleanupRun> findTop30ByOrderByStartedAtDesc();
+}
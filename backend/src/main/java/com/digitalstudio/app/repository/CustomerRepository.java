@@ -10,13 +10,39 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>,
+        org.springframework.data.jpa.repository.JpaSpecificationExecutor<Customer> {
     Optional<Customer> findByMobile(String mobile);
 
+    // Tolerates duplicate mobiles left over from before uk_customers_mobile
+    Optional<Customer> findFirstByMobileOrderByIdAsc(String mobile);
+
+    // Locking read: sees the latest committed row even inside a REPEATABLE READ snapshot
+    @org.springframework.data.jpa.repository.Lock(jakarta.persistence.LockModeType.PESSIMISTIC_WRITE)
+    Optional<Customer> findLockedByMobile(String mobile);
+
+    // Insert-or-get for CustomerResolver: the existing row is kept unchanged when the
+    // mobile (uk_customers_mobile) or id already exists. Unlike INSERT IGNORE, other
+    // errors (bad data, truncation) still fail the statement.
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query(value = "INSERT INTO customers "
+            + "(customer_id, name, mobile, created_at, updated_at) VALUES (:id, :name, :mobile, :now, :now) "
+            + "ON DUPLICATE KEY UPDATE customer_id = customer_id", nativeQuery = true)
+    int insertOrKeep(@org.springframework.data.repository.query.Param("id") Long id,
+            @org.springframework.data.repository.query.Param("name") String name,
+            @org.springframework.data.repository.query.Param("mobile") String mobile,
+            @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
+
     List<Customer> findByMobileContaining(String mobile);
 
     Page<Customer> findByNameContainingIgnoreCaseOrMobileContaining(String name, String mobile, Pageable pageable);
 
+    // Keyset page of the fields CustomerIndex needs, without loading entities
+    @org.springframework.data.jpa.repository.Query("SELECT new map(c.id as id, c.name as name, c.mobile as mobile, "
+            + "c.createdAt as createdAt) FROM Customer c WHERE c.id > :after ORDER BY c.id")
+    List<java.util.Map<String, Object>> findIndexPage(@org.springframework.data.repository.query.Param("after") Long after,
+            Pageable pageable);
+
     @org.springframework.data.jpa.repository.Query("SELECT MAX(c.id) FROM Customer c WHERE c.id BETWEEN :start AND :end")
     Long findMaxIdInRange(@org.springframework.data.repository.query.Param("start") Long start,
             @org.springframework.data.repository.query.Param("end") Long end);
@@ -11,4 +11,14 @@ public interface FileDeleteQueueRepository extends JpaRepository<FileDeleteQueue
     Optional<FileDeleteQueue> findByUploadId(String uploadId);
 
     void deleteByUploadId(String uploadId);
+
+    // Expired entries, oldest first; served by idx_file_delete_queue_soft_delete_time
+    @org.springframework.data.jpa.repository.Query("SELECT q FROM FileDeleteQueue q WHERE q.softDeleteTime < :cutoff ORDER BY q.softDeleteTime")
+    java.util.List<FileDeleteQueue> findExpired(
+            @org.springframework.data.repository.query.Param("cutoff") java.time.LocalDateTime cutoff,
+            org.springframework.data.domain.Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("DELETE FROM FileDeleteQueue q WHERE q.id IN :ids")
+    int deleteAllByIdIn(@org.springframework.data.repository.query.Param("ids") java.util.Collection<java.util.UUID> ids);
 }
@@ -27,4 +27,21 @@ public interface MoneyTransferRepository
     @Modifying
     @Query("UPDATE MoneyTransfer m SET m.uploadId = null WHERE m.uploadId = :uploadId")
     void unlinkUpload(String uploadId);
+
+    @Query("SELECT new map(m.uploadId as uploadId, m.customer.id as customerId) FROM MoneyTransfer m WHERE m.uploadId IN :uploadIds")
+    List<java.util.Map<String, Object>> findCustomerLinksByUploadIdIn(java.util.Collection<String> uploadIds);
+
+    // Keyset page of the fields SearchIndexService indexes
+    @Query("SELECT new map(m.id as id, m.createdAt as createdAt, m.status as status, m.transferType as transferType, "
+            + "m.recipientName as recipientName, m.upiId as upiId, m.accountNumber as accountNumber, "
+            + "m.mobileNumber as mobileNumber, m.bankName as bankName, m.uploadId as uploadId, c.id as customerId, c.name as customerName, c.mobile as customerMobile) "
+            + "FROM MoneyTransfer m LEFT JOIN m.customer c WHERE m.id > :after ORDER BY m.id")
+    List<java.util.Map<String, Object>> findSearchPage(UUID after, org.springframework.data.domain.Pageable pageable);
+
+    // Same fields for one customer's transfers (re-index after a rename)
+    @Query("SELECT new map(m.id as id, m.createdAt as createdAt, m.status as status, m.transferType as transferType, "
+            + "m.recipientName as recipientName, m.upiId as upiId, m.accountNumber as accountNumber, "
+            + "m.mobileNumber as mobileNumber, m.bankName as bankName, m.uploadId as uploadId, c.id as customerId, c.name as customerName, c.mobile as customerMobile) "
+            + "FROM MoneyTransfer m JOIN m.customer c WHERE c.id = :customerId")
+    List<java.util.Map<String, Object>> findSearchRowsByCustomerId(Long customerId);
 }
@@ -19,4 +19,19 @@ public interface PhotoOrderRepository extends JpaRepository<PhotoOrder, java.uti
     @Modifying
     @Query("UPDATE PhotoOrder p SET p.uploadId = null WHERE p.uploadId = :uploadId")
     void unlinkUpload(String uploadId);
+
+    @Query("SELECT new map(p.uploadId as uploadId, p.customer.id as customerId) FROM PhotoOrder p WHERE p.uploadId IN :uploadIds")
+    List<java.util.Map<String, Object>> findCustomerLinksByUploadIdIn(java.util.Collection<String> uploadIds);
+
+    // Keyset page of the fields SearchIndexService indexes
+    @Query("SELECT new map(p.orderId as id, p.createdAt as createdAt, p.status as status, p.uploadId as uploadId, "
+            + "p.description as description, c.id as customerId, c.name as customerName, c.mobile as customerMobile) "
+            + "FROM PhotoOrder p LEFT JOIN p.customer c WHERE p.orderId > :after ORDER BY p.orderId")
+    List<java.util.Map<String, Object>> findSearchPage(java.util.UUID after, org.springframework.data.domain.Pageable pageable);
+
+    // Same fields for one customer's orders (re-index after a rename)
+    @Query("SELECT new map(p.orderId as id, p.createdAt as createdAt, p.status as status, p.uploadId as uploadId, "
+            + "p.description as description, c.id as customerId, c.name as customerName, c.mobile as customerMobile) "
+            + "FROM PhotoOrder p JOIN p.customer c WHERE c.id = :customerId")
+    List<java.util.Map<String, Object>> findSearchRowsByCustomerId(Long customerId);
 }
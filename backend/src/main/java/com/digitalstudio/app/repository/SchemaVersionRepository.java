@@ -0,0 +1,9 @@
+package com.digitalstudio.app.repository;
+
+import com.digitalstudio.app.model.SchemaVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchemaVersionRepository extends JpaRepository<SchemaVersion, Integer> {
+}
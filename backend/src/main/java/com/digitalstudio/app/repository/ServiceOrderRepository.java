@@ -9,4 +9,29 @@ import java.util.UUID;
 @Repository
 public interface ServiceOrderRepository
                 extends JpaRepository<ServiceOrder, UUID>, JpaSpecificationExecutor<ServiceOrder> {
+
+        // Keyset page of the fields SearchIndexService indexes
+        @org.springframework.data.jpa.repository.Query("SELECT new map(s.id as id, s.createdAt as createdAt, s.status as status, "
+                        + "s.serviceName as serviceName, s.description as description, c.id as customerId, c.name as customerName, c.mobile as customerMobile) "
+                        + "FROM ServiceOrder s LEFT JOIN s.customer c WHERE s.id > :after ORDER BY s.id")
+        java.util.List<java.util.Map<String, Object>> findSearchPage(UUID after,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Same fields for one customer's orders (re-index after a rename)
+        @org.springframework.data.jpa.repository.Query("SELECT new map(s.id as id, s.createdAt as createdAt, s.status as status, "
+                        + "s.serviceName as serviceName, s.description as description, c.id as customerId, c.name as customerName, c.mobile as customerMobile) "
+                        + "FROM ServiceOrder s JOIN s.customer c WHERE c.id = :customerId")
+        java.util.List<java.util.Map<String, Object>> findSearchRowsByCustomerId(Long customerId);
+
+        // uploadId -> customerId for the given (extension-less) upload IDs, via service_order_uploads
+        @org.springframework.data.jpa.repository.Query("SELECT new map(l.uploadId as uploadId, s.customer.id as customerId) "
+                        + "FROM ServiceOrderUpload l JOIN ServiceOrder s ON s.id = l.serviceOrderId WHERE l.uploadId IN :uploadIds")
+        java.util.List<java.util.Map<String, Object>> findCustomerLinksByUploadIdIn(java.util.Collection<String> uploadIds);
+
+        // Keyset page of orders with files but no service_order_uploads rows yet (backfill)
+        @org.springframework.data.jpa.repository.Query("SELECT new map(s.id as id, s.uploadIdsJson as uploadIdsJson) "
+                        + "FROM ServiceOrder s WHERE s.id > :after AND s.uploadIdsJson IS NOT NULL "
+                        + "AND NOT EXISTS (SELECT 1 FROM ServiceOrderUpload l WHERE l.serviceOrderId = s.id) ORDER BY s.id")
+        java.util.List<java.util.Map<String, Object>> findUnlinkedPage(UUID after,
+                        org.springframework.data.domain.Pageable pageable);
 }
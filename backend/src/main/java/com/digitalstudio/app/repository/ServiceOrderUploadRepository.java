@@ -0,0 +1,16 @@
+package com.digitalstudio.app.repository;
+
+import com.digitalstudio.app.model.ServiceOrderUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ServiceOrderUploadRepository extends JpaRepository<ServiceOrderUpload, UUID> {
+    @Modifying
+    @Query("DELETE FROM ServiceOrderUpload l WHERE l.serviceOrderId = :serviceOrderId")
+    void deleteByServiceOrderId(UUID serviceOrderId);
+}
@@ -4,10 +4,114 @@ import com.digitalstudio.app.model.Upload;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UploadRepository extends JpaRepository<Upload, String>,
-        org.springframework.data.jpa.repository.JpaSpecificationExecutor<Upload> {
+        org.springframework.data.jpa.repository.JpaSpecificationExecutor<Upload>, UploadRepositoryCustom {
+
+    // Ordered by length first so that F2510171000 ranks above F251017999
+    @org.springframework.data.jpa.repository.Query("SELECT u.uploadId FROM Upload u WHERE u.uploadId LIKE :prefix% ORDER BY LENGTH(u.uploadId) DESC, u.uploadId DESC")
+    List<String> findUploadIdsByPrefixOrderBySequenceDesc(
+            @org.springframework.data.repository.query.Param("prefix") String prefix,
+            org.springframework.data.domain.Pageable pageable);
+
+    // Single IN query for a whole listing page; fetch-joins the customer so the
+    // EAGER association doesn't fall back to one select per row
+    @org.springframework.data.jpa.repository.Query("SELECT u FROM Upload u LEFT JOIN FETCH u.linkedCustomer WHERE u.uploadId IN :ids")
+    List<Upload> findAllByUploadIdIn(@org.springframework.data.repository.query.Param("ids") Collection<String> ids);
+
+    // Keyset page for the availability scanner and layout migration: only the columns they need, no entities
+    @org.springframework.data.jpa.repository.Query("SELECT new map(u.uploadId as uploadId, u.uploadPath as uploadPath, u.isAvailable as isAvailable, "
+            + "u.fileHash as fileHash) FROM Upload u WHERE u.uploadId > :after AND (:includeMissing = true OR u.isAvailable IS NULL OR u.isAvailable = true) "
+            + "ORDER BY u.uploadId")
+    List<java.util.Map<String, Object>> findAvailabilityPage(
+            @org.springframework.data.repository.query.Param("after") String after,
+            @org.springframework.data.repository.query.Param("includeMissing") boolean includeMissing,
+            org.springframework.data.domain.Pageable pageable);
+
+    @org.springframework.data.jpa.repository.Query("SELECT new map(u.uploadId as uploadId, u.uploadPath as uploadPath, u.isAvailable as isAvailable, "
+            + "u.fileHash as fileHash) FROM Upload u WHERE u.uploadId IN :ids")
+    List<java.util.Map<String, Object>> findAvailabilityByUploadIdIn(
+            @org.springframework.data.repository.query.Param("ids") Collection<String> ids);
+
+    // Uploads stored in the given deduplicated blobs
+    @org.springframework.data.jpa.repository.Query("SELECT new map(u.uploadId as uploadId, u.uploadPath as uploadPath, u.isAvailable as isAvailable, "
+            + "u.fileHash as fileHash) FROM Upload u WHERE u.fileHash IN :hashes")
+    List<java.util.Map<String, Object>> findAvailabilityByFileHashIn(
+            @org.springframework.data.repository.query.Param("hashes") Collection<String> hashes);
+
+    long countByIsAvailable(Boolean isAvailable);
+
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Upload u SET u.isAvailable = :available WHERE u.uploadId IN :ids")
+    int updateAvailability(@org.springframework.data.repository.query.Param("ids") Collection<String> ids,
+            @org.springframework.data.repository.query.Param("available") Boolean available);
+
+    // Only moves the path if nobody changed it meanwhile
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Upload u SET u.uploadPath = :newPath WHERE u.uploadId = :id AND u.uploadPath = :oldPath")
+    int updateUploadPath(@org.springframework.data.repository.query.Param("id") String id,
+            @org.springframework.data.repository.query.Param("oldPath") String oldPath,
+            @org.springframework.data.repository.query.Param("newPath") String newPath);
+
+    // Compaction candidates, keyset on (createdAt, uploadId); shared dedup blobs are never rewritten
+    @org.springframework.data.jpa.repository.Query("SELECT new map(u.uploadId as uploadId, u.uploadPath as uploadPath, u.extension as extension, "
+            + "u.createdAt as createdAt) FROM Upload u WHERE u.codec IS NULL AND u.fileHash IS NULL AND u.isAvailable = true "
+            + "AND (u.markDeleted = false OR u.markDeleted IS NULL) AND u.createdAt < :cutoff "
+            + "AND (u.createdAt > :afterTime OR (u.createdAt = :afterTime AND u.uploadId > :afterId)) "
+            + "ORDER BY u.createdAt, u.uploadId")
+    List<java.util.Map<String, Object>> findCompressionCandidates(
+            @org.springframework.data.repository.query.Param("cutoff") java.time.LocalDateTime cutoff,
+            @org.springframework.data.repository.query.Param("afterTime") java.time.LocalDateTime afterTime,
+            @org.springframework.data.repository.query.Param("afterId") String afterId,
+            org.springframework.data.domain.Pageable pageable);
+
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Upload u SET u.codec = :codec, u.uploadPath = :newPath "
+            + "WHERE u.uploadId = :id AND u.uploadPath = :oldPath AND u.codec IS NULL")
+    int updateCodec(@org.springframework.data.repository.query.Param("id") String id,
+            @org.springframework.data.repository.query.Param("oldPath") String oldPath,
+            @org.springframework.data.repository.query.Param("newPath") String newPath,
+            @org.springframework.data.repository.query.Param("codec") String codec);
+
+    // Keyset page of the fields SearchIndexService indexes; hard-deleted uploads
+    // (soft deleted and their file gone) are left out
+    @org.springframework.data.jpa.repository.Query("SELECT new map(u.uploadId as id, u.createdAt as createdAt, u.extension as extension, "
+            + "u.originalFilename as originalFilename, u.uploadedFrom as uploadedFrom) "
+            + "FROM Upload u WHERE u.uploadId > :after "
+            + "AND (u.markDeleted IS NULL OR u.markDeleted = false OR u.isAvailable IS NULL OR u.isAvailable = true) "
+            + "ORDER BY u.uploadId")
+    List<java.util.Map<String, Object>> findSearchPage(@org.springframework.data.repository.query.Param("after") String after,
+            org.springframework.data.domain.Pageable pageable);
+
+    // Retention candidates, oldest first; served by idx_uploads_retention
+    @org.springframework.data.jpa.repository.Query("SELECT u.uploadId FROM Upload u WHERE u.uploadedFrom = :source "
+            + "AND (u.markDeleted = false OR u.markDeleted IS NULL) AND u.createdAt < :cutoff ORDER BY u.createdAt")
+    List<String> findRetentionCandidates(
+            @org.springframework.data.repository.query.Param("source") com.digitalstudio.app.model.SourceType source,
+            @org.springframework.data.repository.query.Param("cutoff") java.time.LocalDateTime cutoff,
+            org.springframework.data.domain.Pageable pageable);
+
+    // Of the given uploads, those with a file on disk and no delete-queue entry yet
+    @org.springframework.data.jpa.repository.Query("SELECT u.uploadId FROM Upload u WHERE u.uploadId IN :ids AND u.isAvailable = true "
+            + "AND NOT EXISTS (SELECT q.id FROM FileDeleteQueue q WHERE q.uploadId = u.uploadId)")
+    List<String> findAvailableNotQueued(@org.springframework.data.repository.query.Param("ids") Collection<String> ids);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Upload u SET u.markDeleted = true, u.remarks = :remarks, u.updatedAt = :now "
+            + "WHERE u.uploadId IN :ids")
+    int markSoftDeleted(@org.springframework.data.repository.query.Param("ids") Collection<String> ids,
+            @org.springframework.data.repository.query.Param("remarks") String remarks,
+            @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
 
-    @org.springframework.data.jpa.repository.Query("SELECT MAX(u.uploadId) FROM Upload u WHERE u.uploadId LIKE :prefix%")
-    String findMaxUploadIdByPrefix(@org.springframework.data.repository.query.Param("prefix") String prefix);
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Upload u SET u.isAvailable = false, "
+            + "u.remarks = CONCAT(COALESCE(u.remarks, ''), :appendRemark), u.updatedAt = :now WHERE u.uploadId IN :ids")
+    int markHardDeleted(@org.springframework.data.repository.query.Param("ids") Collection<String> ids,
+            @org.springframework.data.repository.query.Param("appendRemark") String appendRemark,
+            @org.springframework.data.repository.query.Param("now") java.time.LocalDateTime now);
 }
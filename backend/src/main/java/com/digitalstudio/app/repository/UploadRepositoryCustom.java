@@ -0,0 +1,11 @@
+package com.digitalstudio.app.repository;
+
+import com.digitalstudio.app.model.Upload;
+
+import java.util.List;
+
+public interface UploadRepositoryCustom {
+
+    // Plain INSERTs for new rows with assigned IDs (saveAll would merge, i.e. SELECT each first)
+    void persistAll(List<Upload> uploads);
+}
@@ -0,0 +1,24 @@
+package com.digitalstudio.app.repository;
+
+import com.digitalstudio.app.model.Upload;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class UploadRepositoryImpl implements UploadRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Sent as JDBC batches of hibernate.jdbc.batch_size
+    @Override
+    @Transactional
+    public void persistAll(List<Upload> uploads) {
+        for (Upload upload : uploads) {
+            entityManager.persist(upload);
+        }
+        entityManager.flush();
+    }
+}
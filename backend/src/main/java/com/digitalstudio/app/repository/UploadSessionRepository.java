@@ -0,0 +1,14 @@
+package com.digitalstudio.app.repository;
+
+import com.digitalstudio.app.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime cutoff);
+}
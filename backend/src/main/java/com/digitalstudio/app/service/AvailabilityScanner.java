@@ -0,0 +1,247 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.repository.UploadRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Re-checks Upload.isAvailable against the disk.
+//
+// Uploads are read in keyset pages of (id, path, flag) only, each page's paths are
+// checked concurrently on a small fixed pool (Files.exists is blocking I/O, and on
+// a network share latency dominates), and only rows whose flag flipped are written
+// back with one bulk UPDATE per direction. A scan already in progress is joined
+// rather than started twice.
+@Service
+public class AvailabilityScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityScanner.class);
+
+    private static final int PAGE_SIZE = 500;
+    private static final int DEFAULT_THREADS = 8;
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    private volatile ExecutorService checkers;
+    private int checkerThreads;
+
+    private final AtomicReference<CompletableFuture<Map<String, Object>>> current = new AtomicReference<>();
+
+    // Progress of the running (or last) scan
+    private volatile boolean running;
+    private volatile boolean forced;
+    private volatile long total;
+    private final AtomicInteger checked = new AtomicInteger();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger missing = new AtomicInteger();
+    private final AtomicInteger flipped = new AtomicInteger();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    private record Row(String uploadId, String uploadPath, Boolean isAvailable) {
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (checkers != null) {
+            checkers.shutdownNow();
+        }
+    }
+
+    // Full scan. Without 'force', rows already marked missing are counted but not re-checked.
+    public Map<String, Object> scan(boolean force) {
+        CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = current.compareAndExchange(null, mine);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            Map<String, Object> result = runScan(force);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            running = false;
+            finishedAt = LocalDateTime.now();
+            current.set(null);
+        }
+    }
+
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("running", running);
+        progress.put("force", forced);
+        progress.put("total", total);
+        progress.put("checked", checked.get());
+        progress.put("available", available.get());
+        progress.put("missing", missing.get());
+        progress.put("flipped", flipped.get());
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        return progress;
+    }
+
+    // Incremental check for specific uploads (used by the storage watcher). Returns rows updated.
+    public int checkUploads(Collection<String> uploadIds) {
+        if (uploadIds.isEmpty()) {
+            return 0;
+        }
+        List<Row> rows = toRows(uploadRepository.findAvailabilityByUploadIdIn(uploadIds));
+        return applyFlips(checkPaths(rows), null);
+    }
+
+    // Same for every upload stored in the given deduplicated blobs
+    public int checkBlobs(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return 0;
+        }
+        List<Row> rows = toRows(uploadRepository.findAvailabilityByFileHashIn(hashes));
+        return applyFlips(checkPaths(rows), null);
+    }
+
+    private Map<String, Object> runScan(boolean force) {
+        running = true;
+        forced = force;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        available.set(0);
+        flipped.set(0);
+
+        long alreadyMissing = force ? 0 : uploadRepository.countByIsAvailable(false);
+        missing.set((int) alreadyMissing);
+        total = uploadRepository.count();
+        checked.set((int) alreadyMissing);
+
+        String after = "";
+        while (true) {
+            List<Row> page = toRows(uploadRepository.findAvailabilityPage(after, force, PageRequest.of(0, PAGE_SIZE)));
+            if (page.isEmpty()) {
+                break;
+            }
+            flipped.addAndGet(applyFlips(checkPaths(page), this::count));
+            after = page.get(page.size() - 1).uploadId();
+        }
+
+        logger.info("Availability scan done: {} checked, {} available, {} missing, {} changed",
+                checked.get(), available.get(), missing.get(), flipped.get());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("message", "Availability check complete");
+        result.put("available", available.get());
+        result.put("missing", missing.get());
+        result.put("total", total);
+        result.put("changed", flipped.get());
+        return result;
+    }
+
+    private void count(boolean exists) {
+        checked.incrementAndGet();
+        (exists ? available : missing).incrementAndGet();
+    }
+
+    // Returns the existence of each row's file, in row order
+    private Map<Row, Boolean> checkPaths(List<Row> rows) {
+        ExecutorService pool = checkers();
+        List<Future<Boolean>> futures = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            futures.add(pool.submit(() -> exists(row.uploadPath())));
+        }
+        Map<Row, Boolean> result = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            boolean exists;
+            try {
+                exists = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Availability scan interrupted");
+            } catch (Exception e) {
+                exists = false; // Flag as missing on error
+            }
+            result.put(rows.get(i), exists);
+        }
+        return result;
+    }
+
+    private int applyFlips(Map<Row, Boolean> results, Consumer<Boolean> counter) {
+        List<String> nowAvailable = new ArrayList<>();
+        List<String> nowMissing = new ArrayList<>();
+        for (Map.Entry<Row, Boolean> entry : results.entrySet()) {
+            boolean exists = entry.getValue();
+            if (counter != null) {
+                counter.accept(exists);
+            }
+            // Unchanged rows are skipped; legacy rows without a flag get one written
+            boolean wasAvailable = !Boolean.FALSE.equals(entry.getKey().isAvailable());
+            if (exists != wasAvailable || entry.getKey().isAvailable() == null) {
+                (exists ? nowAvailable : nowMissing).add(entry.getKey().uploadId());
+            }
+        }
+        int updated = 0;
+        if (!nowAvailable.isEmpty()) {
+            updated += uploadRepository.updateAvailability(nowAvailable, true);
+        }
+        if (!nowMissing.isEmpty()) {
+            updated += uploadRepository.updateAvailability(nowMissing, false);
+        }
+        return updated;
+    }
+
+    private static boolean exists(String uploadPath) {
+        try {
+            return uploadPath != null && Files.exists(Paths.get(uploadPath));
+        } catch (RuntimeException e) {
+            return false; // Invalid path
+        }
+    }
+
+    private static List<Row> toRows(List<Map<String, Object>> maps) {
+        List<Row> rows = new ArrayList<>(maps.size());
+        for (Map<String, Object> m : maps) {
+            rows.add(new Row((String) m.get("uploadId"), (String) m.get("uploadPath"), (Boolean) m.get("isAvailable")));
+        }
+        return rows;
+    }
+
+    // Pool size follows AVAILABILITY_SCAN_THREADS; rebuilt only when it changes
+    private synchronized ExecutorService checkers() {
+        int threads = Math.max(1, configurationService.getInt("AVAILABILITY_SCAN_THREADS", DEFAULT_THREADS));
+        if (checkers == null || threads != checkerThreads) {
+            if (checkers != null) {
+                checkers.shutdown();
+            }
+            AtomicInteger n = new AtomicInteger();
+            checkers = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "availability-check-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            checkerThreads = threads;
+        }
+        return checkers;
+    }
+}
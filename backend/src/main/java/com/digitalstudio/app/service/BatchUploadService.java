@@ -0,0 +1,225 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.SourceType;
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.UploadRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Stores several files from one request (POST /api/files/upload/batch).
+//
+// IDs are reserved as one block, all Upload rows go in as one batched INSERT and
+// the files are written concurrently on a small pool. Each file succeeds or fails
+// on its own: a file that can't be written has its row removed again and is
+// reported as an error in its result.
+@Service
+public class BatchUploadService {
+
+    private static final int WRITE_THREADS = 4;
+    private static final int MAX_ID_RETRIES = 5;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    @Autowired
+    private UploadIdAllocator uploadIdAllocator;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    private final ExecutorService writers = Executors.newFixedThreadPool(WRITE_THREADS, new java.util.concurrent.ThreadFactory() {
+        private final AtomicInteger n = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "batch-upload-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private interface FileTask {
+        void run(int index) throws Exception;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    // One result per file, in request order
+    public List<Map<String, Object>> uploadAll(List<MultipartFile> files, SourceType source) {
+        Path root = configurationService.getPath("STORAGE_PATH");
+        if (root == null) {
+            throw new RuntimeException("STORAGE_PATH_NOT_CONFIGURED");
+        }
+        int count = files.size();
+        String[] errors = new String[count];
+        BlobStorageService.StagedBlob[] staged = new BlobStorageService.StagedBlob[count];
+        FileStorageService.StoreResult[] stored = new FileStorageService.StoreResult[count];
+        boolean[] reused = new boolean[count];
+        Upload[] uploads = new Upload[count];
+
+        try {
+            // Deduplicated storage needs the hash (and so the path) before the rows exist
+            if (blobStorageService.isEnabled()) {
+                runAll(count, errors, i -> staged[i] = blobStorageService.stage(files.get(i), root));
+            }
+
+            insertRows(files, source, root, errors, staged, uploads);
+
+            runAll(count, errors, i -> {
+                if (staged[i] != null) {
+                    stored[i] = staged[i].stored();
+                    reused[i] = blobStorageService.commit(staged[i], Path.of(uploads[i].getUploadPath()));
+                } else {
+                    stored[i] = fileStorageService.store(files.get(i), Path.of(uploads[i].getUploadPath()));
+                }
+            });
+
+            // Rows whose file never made it to disk
+            List<String> orphans = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (errors[i] != null && uploads[i] != null) {
+                    orphans.add(uploads[i].getUploadId());
+                }
+            }
+            if (!orphans.isEmpty()) {
+                uploadRepository.deleteAllByIdInBatch(orphans);
+            }
+        } finally {
+            for (BlobStorageService.StagedBlob blob : staged) {
+                if (blob != null) {
+                    blobStorageService.discard(blob);
+                }
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", i);
+            result.put("originalName", files.get(i).getOriginalFilename());
+            if (errors[i] != null) {
+                result.put("error", errors[i]);
+            } else {
+                Upload upload = uploads[i];
+                thumbnailService.generateInBackground(upload.getUploadId());
+                searchIndexService.index(upload);
+                result.put("uploadId", upload.getUploadId() + upload.getExtension());
+                result.put("filename", upload.getUploadId() + upload.getExtension());
+                result.put("path", upload.getUploadPath());
+                result.put("bytes", stored[i].bytes());
+                result.put("heapPeakBytes", stored[i].heapPeakBytes());
+                result.put("deduplicated", reused[i]);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    // Reserves one block of IDs and inserts every row in one batch; on a duplicate
+    // key the allocator catches up with the DB and the whole block is retried
+    private void insertRows(List<MultipartFile> files, SourceType source, Path root, String[] errors,
+            BlobStorageService.StagedBlob[] staged, Upload[] uploads) {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            if (errors[i] == null) {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            List<String> ids = uploadIdAllocator.reserve(pending.size());
+            List<Upload> rows = new ArrayList<>(pending.size());
+            for (int k = 0; k < pending.size(); k++) {
+                int i = pending.get(k);
+                String originalName = files.get(i).getOriginalFilename();
+                String ext = "";
+                if (originalName != null && originalName.lastIndexOf(".") != -1) {
+                    ext = originalName.substring(originalName.lastIndexOf("."));
+                }
+                String id = ids.get(k);
+                Path path = staged[i] != null ? blobStorageService.blobPath(root, staged[i].hash())
+                        : storageLayout.pathFor(root, id, id + ext);
+
+                Upload upload = new Upload();
+                upload.setUploadId(id);
+                upload.setOriginalFilename(originalName);
+                upload.setExtension(ext);
+                upload.setUploadPath(path.toString());
+                upload.setFileHash(staged[i] != null ? staged[i].hash() : null);
+                upload.setIsAvailable(true);
+                upload.setUploadedFrom(source);
+                rows.add(upload);
+                uploads[i] = upload;
+            }
+            try {
+                uploadRepository.persistAll(rows);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ID_RETRIES) {
+                    throw e;
+                }
+                uploadIdAllocator.resync();
+            }
+        }
+    }
+
+    // Runs 'task' for every file not failed yet, concurrently; failures are recorded per file
+    private void runAll(int count, String[] errors, FileTask task) {
+        List<Future<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(errors[i] != null ? null : writers.submit(() -> {
+                task.run(index);
+                return null;
+            }));
+        }
+        for (int i = 0; i < count; i++) {
+            if (futures.get(i) == null) {
+                continue;
+            }
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Batch upload interrupted");
+            } catch (ExecutionException e) {
+                errors[i] = "Failed to upload: " + e.getCause().getMessage();
+            }
+        }
+    }
+}
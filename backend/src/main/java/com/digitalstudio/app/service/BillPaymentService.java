@@ -1,10 +1,10 @@
 package com.digitalstudio.app.service;
 
+import com.digitalstudio.app.dto.CursorPage;
 import com.digitalstudio.app.model.BillPaymentTransaction;
 import com.digitalstudio.app.model.Customer;
 import com.digitalstudio.app.repository.BillPaymentRepository;
 import com.digitalstudio.app.repository.CustomerRepository;
-import com.digitalstudio.app.repository.UploadRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -19,7 +19,7 @@ public class BillPaymentService {
     private BillPaymentRepository billPaymentRepository;
 
     @Autowired
-    private UploadRepository uploadRepository;
+    private UploadEnrichmentService uploadEnrichmentService;
 
     @Autowired
     private CustomerRepository customerRepository;
@@ -27,9 +27,47 @@ public class BillPaymentService {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private CustomerIndex customerIndex;
+
+    @Autowired
+    private CustomerResolver customerResolver;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CursorPaginationService cursorPaginationService;
+
     public Page<BillPaymentTransaction> getAllTransactions(java.time.LocalDate startDate, java.time.LocalDate endDate,
             String search, java.util.List<String> transactionTypes, int page, int size) {
-        org.springframework.data.jpa.domain.Specification<BillPaymentTransaction> spec = (root, query, cb) -> {
+        Page<BillPaymentTransaction> pageData = billPaymentRepository.findAll(
+                filter(startDate, endDate, search, transactionTypes),
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        // Populate Availability
+        uploadEnrichmentService.enrichBillPayments(pageData.getContent());
+
+        return pageData;
+    }
+
+    // Keyset variant of the listing above (see CursorPaginationService)
+    public CursorPage<BillPaymentTransaction> getTransactionsAfter(java.time.LocalDate startDate,
+            java.time.LocalDate endDate, String search, java.util.List<String> transactionTypes, String cursor,
+            int size, boolean withTotal) {
+        String totalKey = withTotal ? "bills|" + startDate + "|" + endDate + "|" + search + "|" + transactionTypes
+                : null;
+        CursorPage<BillPaymentTransaction> result = cursorPaginationService.fetch(billPaymentRepository,
+                filter(startDate, endDate, search, transactionTypes), "id", BillPaymentTransaction::getCreatedAt,
+                BillPaymentTransaction::getId, cursor, size, totalKey);
+        uploadEnrichmentService.enrichBillPayments(result.getContent());
+        return result;
+    }
+
+    private org.springframework.data.jpa.domain.Specification<BillPaymentTransaction> filter(
+            java.time.LocalDate startDate, java.time.LocalDate endDate, String search,
+            java.util.List<String> transactionTypes) {
+        return (root, query, cb) -> {
             java.util.List<jakarta.persistence.criteria.Predicate> predicates = new java.util.ArrayList<>();
 
             if (startDate != null) {
@@ -63,24 +101,6 @@ public class BillPaymentService {
 
             return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
         };
-
-        Page<BillPaymentTransaction> pageData = billPaymentRepository.findAll(spec,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
-
-        // Populate Availability
-        for (BillPaymentTransaction txn : pageData.getContent()) {
-            if (txn.getUploadId() != null) {
-                String rawId = txn.getUploadId();
-                if (rawId.contains(".")) {
-                    rawId = rawId.substring(0, rawId.lastIndexOf('.'));
-                }
-                uploadRepository.findById(rawId).ifPresent(upload -> {
-                    txn.setIsFileAvailable(upload.getIsAvailable());
-                });
-            }
-        }
-
-        return pageData;
     }
 
     public BillPaymentTransaction createTransaction(BillPaymentTransaction transaction) {
@@ -89,24 +109,17 @@ public class BillPaymentService {
         if (transaction.getCustomer() != null) {
             Customer payloadCustomer = transaction.getCustomer();
             if (payloadCustomer.getId() == null) {
-                // Determine if this is a new customer or existing by mobile
-                if (payloadCustomer.getMobile() != null && !payloadCustomer.getMobile().isEmpty()) {
-                    Customer existing = customerRepository.findByMobile(payloadCustomer.getMobile()).orElse(null);
-                    if (existing != null) {
-                        transaction.setCustomer(existing);
-                    } else {
-                        // Create shell if needed (logic from ServiceOrder)
-                        Customer newCust = new Customer();
-                        newCust.setMobile(payloadCustomer.getMobile());
-                        newCust.setName(payloadCustomer.getName());
-                        newCust.setId(customerService.generateNewCustomerId());
-                        transaction.setCustomer(customerRepository.save(newCust));
-                    }
+                // Existing customer by mobile, or a new one with a generated ID
+                if (payloadCustomer.getMobile() != null && !payloadCustomer.getMobile().trim().isEmpty()) {
+                    transaction.setCustomer(customerResolver
+                            .resolve(payloadCustomer.getMobile(), payloadCustomer.getName(), null).customer());
                 }
             }
         }
 
-        return billPaymentRepository.save(transaction);
+        BillPaymentTransaction saved = billPaymentRepository.save(transaction);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public BillPaymentTransaction getById(UUID id) {
@@ -117,7 +130,9 @@ public class BillPaymentService {
         BillPaymentTransaction transaction = billPaymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
         transaction.setStatus(status);
-        return billPaymentRepository.save(transaction);
+        BillPaymentTransaction saved = billPaymentRepository.save(transaction);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public BillPaymentTransaction updateTransaction(UUID id, java.util.Map<String, Object> updates) {
@@ -181,14 +196,17 @@ public class BillPaymentService {
                     String newName = (String) custMap.get("name");
                     if (newName != null && !newName.isEmpty() && !newName.equals(cust.getName())) {
                         cust.setName(newName);
-                        customerRepository.save(cust);
+                        customerIndex.update(customerRepository.save(cust));
+                        searchIndexService.reindexCustomer(cust.getId());
                     }
                 }
                 // If ID changes, we might need repository lookup, but usually we just edit name
             }
         }
 
-        return billPaymentRepository.save(transaction);
+        BillPaymentTransaction saved = billPaymentRepository.save(transaction);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public java.util.List<java.util.Map<String, String>> getSuggestions(String mobile) {
@@ -0,0 +1,183 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.StoredBlob;
+import com.digitalstudio.app.repository.StoredBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Content-addressed upload storage, enabled with STORAGE_DEDUP_ENABLED=true.
+//
+// Uploads are hashed (SHA-256) while they stream to a staging file, then kept
+// once as STORAGE_PATH/.blobs/ab/cd/<hash>. Each Upload pointing at a blob holds
+// one reference in stored_blobs and the file is removed with the last one.
+// Reference changes and the matching file move/delete run under a per-hash lock,
+// so an upload can't pick up a blob that is being removed at the same moment.
+@Service
+public class BlobStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStorageService.class);
+
+    static final String BLOB_DIR = ".blobs";
+    static final String INCOMING_DIR = "incoming";
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Written and hashed, not yet referenced
+    public record StagedBlob(Path staged, String hash, FileStorageService.StoreResult stored) {
+    }
+
+    public boolean isEnabled() {
+        return configurationService.getBoolean("STORAGE_DEDUP_ENABLED", false);
+    }
+
+    public Path blobPath(Path storageRoot, String hash) {
+        return storageRoot.resolve(BLOB_DIR).resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    public StagedBlob stage(MultipartFile file, Path storageRoot) throws IOException {
+        Path staged = storageRoot.resolve(BLOB_DIR).resolve(INCOMING_DIR).resolve(UUID.randomUUID().toString());
+        MessageDigest digest = sha256();
+        FileStorageService.StoreResult stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = fileStorageService.store(in, staged, digest);
+        }
+        return new StagedBlob(staged, HexFormat.of().formatHex(digest.digest()), stored);
+    }
+
+    // For a file already on disk (a completed chunked upload): hashed by reading it once, then moved
+    public StagedBlob stage(Path file, Path storageRoot) throws IOException {
+        long start = System.nanoTime();
+        fileStorageService.resetHeapPeak();
+        MessageDigest digest = sha256();
+        long bytes;
+        try (InputStream in = new java.security.DigestInputStream(Files.newInputStream(file), digest)) {
+            bytes = in.transferTo(java.io.OutputStream.nullOutputStream());
+        }
+        Path staged = storageRoot.resolve(BLOB_DIR).resolve(INCOMING_DIR).resolve(UUID.randomUUID().toString());
+        fileStorageService.move(file, staged);
+        FileStorageService.StoreResult stored = new FileStorageService.StoreResult(staged, bytes,
+                System.nanoTime() - start, fileStorageService.heapPeakBytes());
+        return new StagedBlob(staged, HexFormat.of().formatHex(digest.digest()), stored);
+    }
+
+    // Takes a reference and moves the staged file into place, unless the content is
+    // already stored. Returns true when an existing blob was reused. If the move
+    // fails the reference is dropped again before the exception is rethrown.
+    public boolean commit(StagedBlob blob, Path target) throws IOException {
+        synchronized (lockFor(blob.hash())) {
+            Boolean existing = new TransactionTemplate(transactionManager).execute(status -> {
+                if (storedBlobRepository.incrementRefCount(blob.hash()) > 0) {
+                    return true;
+                }
+                StoredBlob row = new StoredBlob();
+                row.setHash(blob.hash());
+                row.setSize(blob.stored().bytes());
+                row.setRefCount(1);
+                storedBlobRepository.save(row);
+                return false;
+            });
+            if (Boolean.TRUE.equals(existing) && Files.exists(target)) {
+                Files.deleteIfExists(blob.staged());
+                return true;
+            }
+            // New content, or a referenced blob whose file went missing
+            try {
+                fileStorageService.move(blob.staged(), target);
+            } catch (IOException | RuntimeException e) {
+                // Give the reference back, or the blob could never be freed
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    storedBlobRepository.decrementRefCount(blob.hash());
+                    storedBlobRepository.deleteIfUnreferenced(blob.hash());
+                });
+                throw e;
+            }
+            return false;
+        }
+    }
+
+    // Removes a staged file that was never committed (safe to call after commit)
+    public void discard(StagedBlob blob) {
+        try {
+            Files.deleteIfExists(blob.staged());
+        } catch (IOException e) {
+            logger.warn("Could not remove staged blob {}: {}", blob.staged(), e.getMessage());
+        }
+    }
+
+    // Drops one reference; the file is deleted with the last one. Returns false if that delete failed.
+    public boolean release(String hash, Path path) {
+        synchronized (lockFor(hash)) {
+            Boolean last = new TransactionTemplate(transactionManager).execute(status -> {
+                storedBlobRepository.decrementRefCount(hash);
+                return storedBlobRepository.deleteIfUnreferenced(hash) > 0;
+            });
+            if (!Boolean.TRUE.equals(last)) {
+                return true;
+            }
+            try {
+                Files.deleteIfExists(path);
+                return true;
+            } catch (IOException e) {
+                logger.warn("Failed to delete blob {}: {}", path, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Object[] row = storedBlobRepository.stats().get(0);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("blobs", row[0]);
+        stats.put("storedBytes", row[1]);
+        stats.put("savedBytes", row[2]);
+        return stats;
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
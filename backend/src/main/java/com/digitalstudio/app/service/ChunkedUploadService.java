@@ -0,0 +1,338 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.SourceType;
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.model.UploadSession;
+import com.digitalstudio.app.repository.UploadRepository;
+import com.digitalstudio.app.repository.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Resumable uploads for large files over unreliable connections.
+//
+// start() pre-sizes STORAGE_PATH/.partial/<sessionId>. Each chunk is PUT at its
+// offset and streamed straight into that file with positional FileChannel writes
+// through a fixed buffer, so memory use doesn't depend on file or chunk size.
+// Received chunks are tracked as a bitmap on the session row; a client that lost
+// its connection asks for the status and re-sends only the missing chunks.
+// complete() turns the file into a normal Upload with a rename (no copy).
+// Sessions idle for UPLOAD_SESSION_EXPIRY_HOURS are purged by FileCleanupService.
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_CHUNKS = 8192 * 8; // Bits in UploadSession.receivedChunks
+    private static final int DEFAULT_MAX_MB = 2048;
+    private static final int MAX_ID_RETRIES = 5;
+
+    private static final ThreadLocal<ByteBuffer> COPY_BUFFER = ThreadLocal
+            .withInitial(() -> ByteBuffer.allocateDirect(64 * 1024));
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private UploadIdAllocator uploadIdAllocator;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    // Bitmap updates and completion are serialized per session; chunk data is written outside
+    private final Object[] locks = new Object[64];
+
+    {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public Map<String, Object> start(String filename, long size, SourceType source, Integer requestedChunkSize)
+            throws IOException {
+        long maxBytes = configurationService.getInt("CHUNKED_UPLOAD_MAX_MB", DEFAULT_MAX_MB) * 1024L * 1024L;
+        if (size <= 0 || size > maxBytes) {
+            throw new IllegalArgumentException("File size must be between 1 byte and " + maxBytes / (1024 * 1024) + " MB");
+        }
+        int chunkSize = requestedChunkSize != null ? requestedChunkSize : DEFAULT_CHUNK_SIZE;
+        chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+        while ((size + chunkSize - 1) / chunkSize > MAX_CHUNKS) {
+            chunkSize *= 2;
+        }
+
+        Path root = storageRoot();
+        UUID id = UUID.randomUUID();
+        Path partial = root.resolve(".partial").resolve(id.toString());
+        Files.createDirectories(partial.getParent());
+        try (RandomAccessFile file = new RandomAccessFile(partial.toFile(), "rw")) {
+            file.setLength(size); // Sparse where supported; chunks fill it in any order
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(id);
+        session.setOriginalFilename(filename);
+        session.setExtension(extensionOf(filename));
+        session.setUploadedFrom(source);
+        session.setTotalSize(size);
+        session.setChunkSize(chunkSize);
+        session.setReceivedChunks(new byte[0]);
+        session.setPartialPath(partial.toString());
+        try {
+            return status(uploadSessionRepository.save(session));
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStatus(UUID sessionId) {
+        return status(find(sessionId));
+    }
+
+    // Writes one chunk at 'offset' (a multiple of the session's chunk size)
+    public Map<String, Object> writeChunk(UUID sessionId, long offset, InputStream body) throws IOException {
+        UploadSession session = find(sessionId);
+        int chunkSize = session.getChunkSize();
+        if (offset < 0 || offset >= session.getTotalSize() || offset % chunkSize != 0) {
+            throw new IllegalArgumentException("Offset must be a multiple of " + chunkSize + " below "
+                    + session.getTotalSize());
+        }
+        long expected = Math.min(chunkSize, session.getTotalSize() - offset);
+
+        long written = 0;
+        ByteBuffer buffer = COPY_BUFFER.get();
+        buffer.clear();
+        ReadableByteChannel source = Channels.newChannel(body);
+        try (FileChannel out = FileChannel.open(Paths.get(session.getPartialPath()), StandardOpenOption.WRITE)) {
+            long position = offset;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (written + buffer.remaining() > expected) {
+                    throw new IllegalArgumentException("Chunk at " + offset + " is larger than " + expected + " bytes");
+                }
+                while (buffer.hasRemaining()) {
+                    int n = out.write(buffer, position);
+                    position += n;
+                    written += n;
+                }
+                buffer.clear();
+            }
+            if (written != expected) {
+                throw new IllegalArgumentException("Chunk at " + offset + " has " + written + " of " + expected
+                        + " bytes");
+            }
+            out.force(false); // Only acknowledge chunks that would survive a crash
+        }
+
+        int index = (int) (offset / chunkSize);
+        synchronized (lockFor(sessionId)) {
+            session = find(sessionId);
+            BitSet received = BitSet.valueOf(session.getReceivedChunks());
+            if (!received.get(index)) {
+                received.set(index);
+                session.setReceivedChunks(received.toByteArray());
+                session.setReceivedBytes(session.getReceivedBytes() + expected);
+            }
+            session.setUpdatedAt(LocalDateTime.now()); // A re-sent chunk still counts as activity
+            return status(uploadSessionRepository.save(session));
+        }
+    }
+
+    // Registers the finished file as an Upload; same response as a single upload
+    public Map<String, Object> complete(UUID sessionId) throws IOException {
+        synchronized (lockFor(sessionId)) {
+            UploadSession session = find(sessionId);
+            List<Integer> missing = missingChunks(session);
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Upload incomplete: " + missing.size() + " chunk(s) missing");
+            }
+
+            Path root = storageRoot();
+            Path partial = Paths.get(session.getPartialPath());
+            BlobStorageService.StagedBlob staged = blobStorageService.isEnabled()
+                    ? blobStorageService.stage(partial, root)
+                    : null;
+            try {
+                Upload upload = insertUpload(session, root, staged);
+                Path path = Paths.get(upload.getUploadPath());
+                boolean reused = false;
+                try {
+                    if (staged != null) {
+                        reused = blobStorageService.commit(staged, path);
+                    } else {
+                        fileStorageService.move(partial, path);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    uploadRepository.deleteById(upload.getUploadId());
+                    throw e;
+                }
+                uploadSessionRepository.delete(session);
+
+                thumbnailService.generateInBackground(upload.getUploadId());
+                searchIndexService.index(upload);
+
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("filename", upload.getUploadId() + upload.getExtension());
+                response.put("uploadId", upload.getUploadId() + upload.getExtension());
+                response.put("originalName", upload.getOriginalFilename());
+                response.put("path", upload.getUploadPath());
+                response.put("bytes", session.getTotalSize());
+                response.put("deduplicated", reused);
+                return response;
+            } finally {
+                if (staged != null) {
+                    // A failed completion puts the data back so the client can retry
+                    if (Files.exists(staged.staged()) && !Files.exists(partial)) {
+                        fileStorageService.move(staged.staged(), partial);
+                    }
+                    blobStorageService.discard(staged);
+                }
+            }
+        }
+    }
+
+    public void abort(UUID sessionId) throws IOException {
+        synchronized (lockFor(sessionId)) {
+            UploadSession session = find(sessionId);
+            Files.deleteIfExists(Paths.get(session.getPartialPath()));
+            uploadSessionRepository.delete(session);
+        }
+    }
+
+    // Sessions not touched since 'cutoff'; returns how many were removed
+    public int purgeAbandoned(LocalDateTime cutoff) {
+        int purged = 0;
+        for (UploadSession session : uploadSessionRepository.findByUpdatedAtBefore(cutoff)) {
+            synchronized (lockFor(session.getId())) {
+                try {
+                    Files.deleteIfExists(Paths.get(session.getPartialPath()));
+                    uploadSessionRepository.delete(session);
+                    purged++;
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not purge upload session {}: {}", session.getId(), e.getMessage());
+                }
+            }
+        }
+        return purged;
+    }
+
+    private Upload insertUpload(UploadSession session, Path root, BlobStorageService.StagedBlob staged) {
+        for (int attempt = 1; ; attempt++) {
+            String id = uploadIdAllocator.nextId();
+            Path path = staged != null ? blobStorageService.blobPath(root, staged.hash())
+                    : storageLayout.pathFor(root, id, id + session.getExtension());
+
+            Upload upload = new Upload();
+            upload.setUploadId(id);
+            upload.setOriginalFilename(session.getOriginalFilename());
+            upload.setExtension(session.getExtension());
+            upload.setUploadPath(path.toString());
+            upload.setFileHash(staged != null ? staged.hash() : null);
+            upload.setIsAvailable(true);
+            upload.setUploadedFrom(session.getUploadedFrom());
+            try {
+                uploadRepository.persistAll(List.of(upload));
+                return upload;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ID_RETRIES) {
+                    throw e;
+                }
+                uploadIdAllocator.resync();
+            }
+        }
+    }
+
+    private Map<String, Object> status(UploadSession session) {
+        List<Integer> missing = missingChunks(session);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("sessionId", session.getId());
+        status.put("originalName", session.getOriginalFilename());
+        status.put("totalSize", session.getTotalSize());
+        status.put("chunkSize", session.getChunkSize());
+        status.put("chunkCount", chunkCount(session));
+        status.put("receivedBytes", session.getReceivedBytes());
+        status.put("missingChunks", missing);
+        status.put("complete", missing.isEmpty());
+        return status;
+    }
+
+    private static List<Integer> missingChunks(UploadSession session) {
+        BitSet received = BitSet.valueOf(session.getReceivedChunks());
+        int count = chunkCount(session);
+        List<Integer> missing = new ArrayList<>();
+        for (int i = received.nextClearBit(0); i < count; i = received.nextClearBit(i + 1)) {
+            missing.add(i);
+        }
+        return missing;
+    }
+
+    private static int chunkCount(UploadSession session) {
+        return (int) ((session.getTotalSize() + session.getChunkSize() - 1) / session.getChunkSize());
+    }
+
+    private UploadSession find(UUID sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("UPLOAD_SESSION_NOT_FOUND"));
+    }
+
+    private Path storageRoot() {
+        Path root = configurationService.getPath("STORAGE_PATH");
+        if (root == null) {
+            throw new RuntimeException("STORAGE_PATH_NOT_CONFIGURED");
+        }
+        return root;
+    }
+
+    private Object lockFor(UUID sessionId) {
+        return locks[Math.floorMod(sessionId.hashCode(), locks.length)];
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename != null && filename.lastIndexOf(".") != -1) {
+            return filename.substring(filename.lastIndexOf("."));
+        }
+        return "";
+    }
+}
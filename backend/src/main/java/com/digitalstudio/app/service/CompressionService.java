@@ -0,0 +1,215 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.repository.UploadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Compacts cold uploads: files older than COMPRESS_AFTER_DAYS are gzipped
+// (documents) or re-encoded at COMPRESS_JPEG_QUALITY (JPEG photos), and the
+// result is kept only if it saves at least MIN_SAVING. Upload.codec records
+// what was done, so each file is examined once; FileServingService undoes
+// gzip while streaming. Runs as a stage of the FileCleanupService job, one
+// file at a time so a large photo is the most it ever holds in memory.
+@Service
+public class CompressionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionService.class);
+
+    public static final String IDENTITY = "identity";
+    public static final String GZIP = "gzip";
+    public static final String JPEG = "jpeg";
+
+    private static final int PAGE_SIZE = 200;
+    private static final int DEFAULT_MAX_PER_RUN = 2000;
+    private static final int DEFAULT_JPEG_QUALITY = 75;
+    private static final double MIN_SAVING = 0.10;
+
+    // Already compressed: gzip would only burn CPU
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(".png", ".gif", ".webp", ".heic", ".zip",
+            ".gz", ".7z", ".rar", ".mp3", ".mp4", ".mov", ".m4a", ".docx", ".xlsx", ".pptx");
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    public record Result(int compressed, long bytesSaved) {
+    }
+
+    // Examines up to COMPRESS_MAX_PER_RUN uploads, oldest first. Disabled unless COMPRESS_AFTER_DAYS is set.
+    public Result compactColdUploads() {
+        Integer days = configurationService.getInteger("COMPRESS_AFTER_DAYS");
+        if (days == null || days < 0) {
+            return new Result(0, 0);
+        }
+        int budget = configurationService.getInt("COMPRESS_MAX_PER_RUN", DEFAULT_MAX_PER_RUN);
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+
+        LocalDateTime afterTime = LocalDateTime.of(1970, 1, 1, 0, 0);
+        String afterId = "";
+        int compressed = 0;
+        long saved = 0;
+        while (budget > 0) {
+            List<Map<String, Object>> page = uploadRepository.findCompressionCandidates(cutoff, afterTime, afterId,
+                    PageRequest.of(0, Math.min(PAGE_SIZE, budget)));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Map<String, Object> row : page) {
+                long saving = compact((String) row.get("uploadId"), (String) row.get("uploadPath"),
+                        (String) row.get("extension"));
+                if (saving > 0) {
+                    compressed++;
+                    saved += saving;
+                }
+            }
+            Map<String, Object> last = page.get(page.size() - 1);
+            afterTime = (LocalDateTime) last.get("createdAt");
+            afterId = (String) last.get("uploadId");
+            budget -= page.size();
+        }
+        return new Result(compressed, saved);
+    }
+
+    // Returns the bytes saved, 0 when the file was left as is, -1 on error (retried next run)
+    private long compact(String uploadId, String uploadPath, String extension) {
+        if (uploadPath == null) {
+            return 0;
+        }
+        Path source = Paths.get(uploadPath);
+        String ext = extension != null ? extension.toLowerCase() : "";
+        try {
+            if (!Files.isRegularFile(source)) {
+                return -1; // Missing; the availability scan deals with it
+            }
+            long before = Files.size(source);
+            if (ext.equals(".jpg") || ext.equals(".jpeg")) {
+                return recodeJpeg(uploadId, source, before);
+            }
+            if (COMPRESSED_EXTENSIONS.contains(ext)) {
+                return markIdentity(uploadId, uploadPath);
+            }
+            return gzip(uploadId, source, before);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not compress {}: {}", uploadPath, e.toString());
+            return -1;
+        }
+    }
+
+    private long gzip(String uploadId, Path source, long before) throws IOException {
+        Path target = source.resolveSibling(source.getFileName() + ".gz");
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                Files.copy(source, out);
+            }
+            long after = Files.size(temp);
+            if (after > before * (1 - MIN_SAVING)) {
+                Files.delete(temp);
+                return markIdentity(uploadId, source.toString());
+            }
+            fileStorageService.move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        // Both files are valid until the row points at the new one; then the old one goes
+        if (uploadRepository.updateCodec(uploadId, source.toString(), target.toString(), GZIP) == 0) {
+            Files.deleteIfExists(target); // Row changed meanwhile (deleted, moved or already done)
+            return 0;
+        }
+        fileServingService.evict(uploadId);
+        Files.deleteIfExists(source);
+        return before - Files.size(target);
+    }
+
+    // Re-encodes in place (atomic replace) keeping the EXIF / JFIF metadata, e.g. orientation
+    private long recodeJpeg(String uploadId, Path source, long before) throws IOException {
+        int quality = configurationService.getInt("COMPRESS_JPEG_QUALITY", DEFAULT_JPEG_QUALITY);
+        Path temp = source.resolveSibling(source.getFileName() + ".part");
+        try {
+            IIOImage image;
+            try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+                Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("jpeg");
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(in, true, false);
+                    image = reader.readAll(0, null);
+                } finally {
+                    reader.dispose();
+                }
+            }
+
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality / 100f);
+                writer.write(null, image, param);
+            } finally {
+                writer.dispose();
+            }
+            image = null;
+
+            long after = Files.size(temp);
+            if (after > before * (1 - MIN_SAVING)) {
+                Files.delete(temp);
+                return markIdentity(uploadId, source.toString());
+            }
+            fileStorageService.move(temp, source);
+        } catch (IOException | RuntimeException e) {
+            // Unsupported variants (e.g. CMYK) stay as uploaded
+            if (!Files.exists(temp) || Files.size(temp) == 0) {
+                markIdentity(uploadId, source.toString());
+                return 0;
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        uploadRepository.updateCodec(uploadId, source.toString(), source.toString(), JPEG);
+        fileServingService.evict(uploadId);
+        return before - Files.size(source);
+    }
+
+    private long markIdentity(String uploadId, String uploadPath) {
+        uploadRepository.updateCodec(uploadId, uploadPath, uploadPath, IDENTITY);
+        return 0;
+    }
+}
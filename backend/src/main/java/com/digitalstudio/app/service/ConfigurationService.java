@@ -9,14 +9,23 @@ import com.digitalstudio.app.repository.AddonRepository;
 import com.digitalstudio.app.repository.PhotoItemRepository;
 import com.digitalstudio.app.repository.ServiceItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.digitalstudio.app.dto.ConfigExportDTO;
@@ -317,16 +326,113 @@ public class ConfigurationService {
     @Autowired
     private ValueConfigurationRepository valueRepository;
 
+    // Write-through cache of value_configurations. Replaced as a whole whenever
+    // values change, so readers always see one consistent snapshot and parsed
+    // values never outlive the text they came from.
+    private volatile ValueSnapshot valueCache = new ValueSnapshot(Map.of());
+
+    private static final class ValueSnapshot {
+        private static final Object MISSING = new Object();
+
+        private final Map<String, String> raw;
+        private final Map<String, Object> parsed = new ConcurrentHashMap<>();
+
+        ValueSnapshot(Map<String, String> raw) {
+            this.raw = raw;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T get(String name, String type, Function<String, T> parser) {
+            Object value = parsed.computeIfAbsent(name + "#" + type, k -> {
+                String text = raw.get(name);
+                if (text == null || text.trim().isEmpty()) {
+                    return MISSING;
+                }
+                try {
+                    T result = parser.apply(text.trim());
+                    return result != null ? result : MISSING;
+                } catch (RuntimeException e) {
+                    return MISSING; // Invalid config is treated as not set
+                }
+            });
+            return value == MISSING ? null : (T) value;
+        }
+    }
+
+    // Published after value_configurations change, once the new snapshot is in place
+    public record ValuesChangedEvent() {
+    }
+
+    @Autowired
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void loadValueCache() {
+        Map<String, String> values = new HashMap<>();
+        for (ValueConfiguration v : valueRepository.findAll()) {
+            if (v.getValue() != null) {
+                values.put(v.getName(), v.getValue());
+            }
+        }
+        valueCache = new ValueSnapshot(values);
+    }
+
+    // Swap the cache only once the change is committed
+    private void refreshValueCache() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    loadValueCache();
+                    eventPublisher.publishEvent(new ValuesChangedEvent());
+                }
+            });
+        } else {
+            loadValueCache();
+            eventPublisher.publishEvent(new ValuesChangedEvent());
+        }
+    }
+
     public List<ValueConfiguration> getAllValues() {
         return valueRepository.findAll();
     }
 
     public List<ValueConfiguration> saveValues(List<ValueConfiguration> values) {
-        return valueRepository.saveAll(values);
+        List<ValueConfiguration> saved = valueRepository.saveAll(values);
+        refreshValueCache();
+        return saved;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public String getValue(String name) {
-        return valueRepository.findById(name).map(ValueConfiguration::getValue).orElse(null);
+        return valueCache.raw.get(name);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Integer getInteger(String name) {
+        return valueCache.get(name, "int", Integer::valueOf);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int getInt(String name, int defaultValue) {
+        Integer value = getInteger(name);
+        return value != null ? value : defaultValue;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean getBoolean(String name, boolean defaultValue) {
+        String value = getValue(name);
+        return value != null && !value.trim().isEmpty() ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public LocalTime getLocalTime(String name) {
+        return valueCache.get(name, "time", LocalTime::parse);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Path getPath(String name) {
+        return valueCache.get(name, "path", Paths::get);
     }
 
     public ConfigExportDTO exportAll() {
@@ -358,6 +464,7 @@ public class ConfigurationService {
         if (dto.getValues() != null) {
             valueRepository.deleteAllInBatch();
             valueRepository.saveAll(dto.getValues());
+            refreshValueCache();
         }
     }
 }
@@ -0,0 +1,143 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.dto.CursorPage;
+import jakarta.persistence.criteria.Path;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Keyset ("seek") pagination for the date-sorted listings.
+//
+// Rows are ordered by (createdAt DESC, id DESC) and a page starts strictly
+// after the last row of the previous one, so every page costs the same as the
+// first and no COUNT runs. The cursor is that row's key, base64url-encoded.
+// Rows without createdAt sort last (MySQL's DESC order) and are paged by id.
+// An approximate total can be requested; it is counted once per filter and
+// cached for LIST_TOTAL_CACHE_SECONDS.
+@Service
+public class CursorPaginationService {
+
+    public static final int MAX_SIZE = 200;
+    private static final int DEFAULT_TOTAL_CACHE_SECONDS = 60;
+    private static final int MAX_CACHED_TOTALS = 500;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    private record Cursor(LocalDateTime createdAt, String id) {
+    }
+
+    private record CachedTotal(long total, long expiresAt) {
+    }
+
+    private final Map<String, CachedTotal> totals = new ConcurrentHashMap<>();
+
+    // 'totalKey' identifies the filter for the cached total; null skips the count.
+    // Throws IllegalArgumentException("INVALID_CURSOR") for a cursor it didn't issue.
+    public <T> CursorPage<T> fetch(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+            String idAttribute, Function<T, LocalDateTime> createdAtOf, Function<T, Object> idOf,
+            String cursor, int size, String totalKey) {
+        int limit = Math.max(1, Math.min(size, MAX_SIZE));
+        Cursor after = decode(cursor);
+        Specification<T> spec = Specification.where(filter);
+        if (after != null) {
+            spec = spec.and(after(after, idAttribute));
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, idAttribute));
+
+        // One extra row tells whether another page exists
+        List<T> rows = repository.findBy(spec, q -> q.sortBy(sort).limit(limit + 1).all());
+        boolean hasNext = rows.size() > limit;
+        List<T> content = hasNext ? rows.subList(0, limit) : rows;
+        String next = null;
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            next = encode(createdAtOf.apply(last), String.valueOf(idOf.apply(last)));
+        }
+
+        Long total = totalKey != null ? approximateTotal(repository, filter, totalKey) : null;
+        return new CursorPage<>(content, limit, hasNext, next, total);
+    }
+
+    private <T> long approximateTotal(JpaSpecificationExecutor<T> repository, Specification<T> filter, String key) {
+        long now = System.currentTimeMillis();
+        CachedTotal cached = totals.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.total();
+        }
+        long total = repository.count(filter);
+        if (totals.size() >= MAX_CACHED_TOTALS) {
+            totals.values().removeIf(t -> t.expiresAt() <= now);
+            if (totals.size() >= MAX_CACHED_TOTALS) {
+                totals.clear();
+            }
+        }
+        long ttl = configurationService.getInt("LIST_TOTAL_CACHE_SECONDS", DEFAULT_TOTAL_CACHE_SECONDS) * 1000L;
+        totals.put(key, new CachedTotal(total, now + ttl));
+        return total;
+    }
+
+    // Rows after the cursor in (createdAt DESC, id DESC) order, NULL createdAt last
+    private static <T> Specification<T> after(Cursor cursor, String idAttribute) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            Path<Comparable<Object>> id = root.get(idAttribute);
+            Comparable<Object> idValue = parseId(cursor.id(), id.getJavaType());
+            if (cursor.createdAt() == null) {
+                return cb.and(cb.isNull(createdAt), cb.lessThan(id, idValue));
+            }
+            return cb.or(
+                    cb.lessThan(createdAt, cursor.createdAt()),
+                    cb.and(cb.equal(createdAt, cursor.createdAt()), cb.lessThan(id, idValue)),
+                    cb.isNull(createdAt));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> parseId(String value, Class<?> type) {
+        try {
+            if (type == UUID.class) {
+                return (Comparable<Object>) (Comparable<?>) UUID.fromString(value);
+            }
+            if (type == Long.class || type == long.class) {
+                return (Comparable<Object>) (Comparable<?>) Long.valueOf(value);
+            }
+            return (Comparable<Object>) (Comparable<?>) value;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("INVALID_CURSOR");
+        }
+    }
+
+    private static String encode(LocalDateTime createdAt, String id) {
+        String raw = (createdAt != null ? createdAt.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null; // First page
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            if (bar < 0 || bar == raw.length() - 1) {
+                throw new IllegalArgumentException("INVALID_CURSOR");
+            }
+            String time = raw.substring(0, bar);
+            return new Cursor(time.isEmpty() ? null : LocalDateTime.parse(time), raw.substring(bar + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("INVALID_CURSOR");
+        }
+    }
+}
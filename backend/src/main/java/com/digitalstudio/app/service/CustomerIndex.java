@@ -0,0 +1,370 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory lookup index for the customer typeahead and list search, so a
+// keystroke never turns into a '%q%' scan of the customers table.
+//
+// - Mobile numbers: digit trigram postings (1000 fixed slots); a query is
+//   answered from its rarest trigram and verified with contains().
+// - Names: lower-cased tokens in a TreeMap, so every query word is a prefix
+//   range scan ("ram ku" matches "Ramesh Kumar").
+// - IDs: their decimal strings in a TreeMap for prefix matches.
+//
+// Built from the DB once at startup (callers fall back to the repository until
+// then) and kept current by update() after each customer save commits.
+@Service
+public class CustomerIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerIndex.class);
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    // Lower rank sorts first
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_PREFIX = 1;
+    private static final int RANK_NAME_PREFIX = 2;
+    private static final int RANK_CONTAINS = 3;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private record Entry(long id, String name, String mobile, long createdAt) {
+    }
+
+    private record Hit(Entry entry, int rank) {
+    }
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt(Hit::rank)
+            .thenComparing(Comparator.comparingLong((Hit h) -> h.entry().createdAt()).reversed())
+            .thenComparing(Comparator.comparingLong((Hit h) -> h.entry().id()).reversed());
+
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator.comparingLong(Entry::createdAt).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::id).reversed());
+
+    // All guarded by 'lock'
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private final Set<Long>[] trigrams = new Set[1000];
+    private final NavigableMap<String, Set<Long>> nameTokens = new TreeMap<>();
+    private final NavigableMap<String, Long> idStrings = new TreeMap<>();
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        List<Entry> loaded = new ArrayList<>();
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Map<String, Object>> page = customerRepository.findIndexPage(after,
+                    PageRequest.of(0, LOAD_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Map<String, Object> row : page) {
+                loaded.add(toEntry((Long) row.get("id"), (String) row.get("name"), (String) row.get("mobile"),
+                        (LocalDateTime) row.get("createdAt")));
+            }
+            after = (Long) page.get(page.size() - 1).get("id");
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Saves that committed while loading are already in; keep them
+            Map<Long, Entry> live = new HashMap<>(entries);
+            clearLocked();
+            for (Entry entry : loaded) {
+                addLocked(entry);
+            }
+            for (Entry entry : live.values()) {
+                removeLocked(entry.id());
+                addLocked(entry);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Customer index built: {} customers in {} ms", loaded.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Call after saving a customer; applied once the surrounding transaction commits
+    public void update(Customer customer) {
+        if (customer == null || customer.getId() == null) {
+            return;
+        }
+        Entry entry = toEntry(customer.getId(), customer.getName(), customer.getMobile(), customer.getCreatedAt());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(entry);
+                }
+            });
+        } else {
+            put(entry);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Best matches first: exact mobile/ID, then prefixes, then mobile substrings; newest first within a rank
+    public List<Long> suggest(String query, int limit) {
+        PriorityQueue<Hit> top = new PriorityQueue<>(BEST_FIRST.reversed());
+        lock.readLock().lock();
+        try {
+            for (Hit hit : match(query)) {
+                top.add(hit);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(BEST_FIRST);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            ids.add(hit.entry().id());
+        }
+        return ids;
+    }
+
+    // Every match, newest first (the customer list's order)
+    public List<Long> matchAll(String query) {
+        List<Entry> matched = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Hit hit : match(query)) {
+                matched.add(hit.entry());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matched.sort(NEWEST_FIRST);
+        List<Long> ids = new ArrayList<>(matched.size());
+        for (Entry entry : matched) {
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    // Caller holds the read lock
+    private List<Hit> match(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase();
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        String digits = q.replaceAll("[\\s+-]", "");
+        return digits.matches("\\d+") ? matchNumber(digits) : matchName(q);
+    }
+
+    private List<Hit> matchNumber(String q) {
+        Map<Long, Hit> hits = new HashMap<>();
+
+        // Mobile substrings: candidates from the query's rarest trigram
+        Collection<Entry> candidates;
+        if (q.length() >= 3) {
+            Set<Long> rarest = null;
+            for (int i = 0; i + 3 <= q.length(); i++) {
+                Set<Long> posting = trigrams[Integer.parseInt(q.substring(i, i + 3))];
+                if (posting == null) {
+                    rarest = Set.of(); // No mobile contains it
+                    break;
+                }
+                if (rarest == null || posting.size() < rarest.size()) {
+                    rarest = posting;
+                }
+            }
+            candidates = new ArrayList<>(rarest.size());
+            for (Long id : rarest) {
+                candidates.add(entries.get(id));
+            }
+        } else {
+            candidates = entries.values();
+        }
+        for (Entry entry : candidates) {
+            if (entry.mobile() == null) {
+                continue;
+            }
+            int at = entry.mobile().indexOf(q);
+            if (at >= 0) {
+                int rank = entry.mobile().length() == q.length() ? RANK_EXACT : at == 0 ? RANK_PREFIX : RANK_CONTAINS;
+                hits.put(entry.id(), new Hit(entry, rank));
+            }
+        }
+
+        for (Map.Entry<String, Long> idString : idStrings.subMap(q, true, q + Character.MAX_VALUE, false).entrySet()) {
+            int rank = idString.getKey().length() == q.length() ? RANK_EXACT : RANK_PREFIX;
+            Hit existing = hits.get(idString.getValue());
+            if (existing == null || existing.rank() > rank) {
+                hits.put(idString.getValue(), new Hit(entries.get(idString.getValue()), rank));
+            }
+        }
+        return new ArrayList<>(hits.values());
+    }
+
+    // Each query word must prefix some token of the name
+    private List<Hit> matchName(String q) {
+        List<String> words = tokenize(q);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> ranks = null;
+        for (String word : words) {
+            Map<Long, Integer> wordRanks = new HashMap<>();
+            for (Map.Entry<String, Set<Long>> token : nameTokens
+                    .subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                int rank = token.getKey().equals(word) ? RANK_PREFIX : RANK_NAME_PREFIX;
+                for (Long id : token.getValue()) {
+                    wordRanks.merge(id, rank, Math::min);
+                }
+            }
+            if (ranks == null) {
+                ranks = wordRanks;
+            } else {
+                Map<Long, Integer> both = new HashMap<>();
+                for (Map.Entry<Long, Integer> e : ranks.entrySet()) {
+                    Integer other = wordRanks.get(e.getKey());
+                    if (other != null) {
+                        both.put(e.getKey(), Math.max(e.getValue(), other));
+                    }
+                }
+                ranks = both;
+            }
+            if (ranks.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(ranks.size());
+        for (Map.Entry<Long, Integer> e : ranks.entrySet()) {
+            Entry entry = entries.get(e.getKey());
+            boolean exact = entry.name() != null && entry.name().equalsIgnoreCase(q);
+            hits.add(new Hit(entry, exact ? RANK_EXACT : e.getValue()));
+        }
+        return hits;
+    }
+
+    private void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(entry.id());
+            if (previous != null && entry.createdAt() == 0) {
+                entry = new Entry(entry.id(), entry.name(), entry.mobile(), previous.createdAt());
+            }
+            removeLocked(entry.id());
+            addLocked(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(Entry entry) {
+        entries.put(entry.id(), entry);
+        idStrings.put(Long.toString(entry.id()), entry.id());
+        for (int gram : trigramsOf(entry.mobile())) {
+            if (trigrams[gram] == null) {
+                trigrams[gram] = new HashSet<>();
+            }
+            trigrams[gram].add(entry.id());
+        }
+        for (String token : tokenize(entry.name())) {
+            nameTokens.computeIfAbsent(token, t -> new HashSet<>()).add(entry.id());
+        }
+    }
+
+    private void removeLocked(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        idStrings.remove(Long.toString(id));
+        for (int gram : trigramsOf(entry.mobile())) {
+            Set<Long> posting = trigrams[gram];
+            if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                trigrams[gram] = null;
+            }
+        }
+        for (String token : tokenize(entry.name())) {
+            Set<Long> posting = nameTokens.get(token);
+            if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                nameTokens.remove(token);
+            }
+        }
+    }
+
+    private void clearLocked() {
+        entries.clear();
+        idStrings.clear();
+        nameTokens.clear();
+        java.util.Arrays.fill(trigrams, null);
+    }
+
+    private static Entry toEntry(Long id, String name, String mobile, LocalDateTime createdAt) {
+        String digits = mobile != null ? mobile.replaceAll("\\D", "") : null;
+        return new Entry(id, name, digits == null || digits.isEmpty() ? null : digits,
+                createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : 0);
+    }
+
+    private static Set<Integer> trigramsOf(String mobile) {
+        Set<Integer> grams = new HashSet<>();
+        if (mobile != null) {
+            for (int i = 0; i + 3 <= mobile.length(); i++) {
+                grams.add(Integer.parseInt(mobile.substring(i, i + 3)));
+            }
+        }
+        return grams;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text != null) {
+            for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+}
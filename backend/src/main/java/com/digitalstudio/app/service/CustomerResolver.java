@@ -0,0 +1,70 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Finds or creates the customer for a mobile number, shared by the order, service
+// order, bill payment and money transfer create flows.
+//
+// New customers go in with INSERT ... ON DUPLICATE KEY UPDATE (a no-op update)
+// against the unique mobile index (db/migration V2), so two counters entering the
+// same new mobile at once end up with one row: the loser's insert waits for the
+// winner, changes nothing, and both read the winner back. Everything runs in the
+// caller's transaction so the customer returned is managed there (a later save()
+// doesn't re-INSERT it); the read-back is a locking read, which sees the winner's
+// committed row despite the caller's REPEATABLE READ snapshot. Nothing is cached:
+// an existing mobile costs one indexed lookup on uk_customers_mobile.
+@Service
+public class CustomerResolver {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerIndex customerIndex;
+
+    public record Resolution(Customer customer, boolean created) {
+    }
+
+    // 'newId' is used if the customer has to be created (null: next generated ID).
+    // The mobile must not be blank.
+    @Transactional
+    public Resolution resolve(String mobile, String name, Long newId) {
+        String key = mobile.trim();
+
+        Optional<Customer> existing = customerRepository.findFirstByMobileOrderByIdAsc(key);
+        if (existing.isPresent()) {
+            return new Resolution(existing.get(), false);
+        }
+
+        Long id = newId != null ? newId : customerService.generateNewCustomerId();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            customerRepository.insertOrKeep(id, name, key, LocalDateTime.now());
+            Optional<Customer> row = customerRepository.findLockedByMobile(key);
+            if (row.isPresent()) {
+                // The update count can't tell an insert from a kept row (the driver
+                // reports found rows), so the ID decides. A concurrent create of the
+                // same mobile with the same ID counts as created for both requests.
+                Resolution resolution = new Resolution(row.get(), row.get().getId().equals(id));
+                if (resolution.created()) {
+                    customerIndex.update(resolution.customer());
+                }
+                return resolution;
+            }
+            // Kept the row that already has this ID (another customer's)
+            id = customerService.generateNewCustomerId();
+        }
+        throw new RuntimeException("CUSTOMER_RESOLVE_FAILED");
+    }
+}
@@ -1,13 +1,18 @@
 package com.digitalstudio.app.service;
 
+import com.digitalstudio.app.dto.CursorPage;
 import com.digitalstudio.app.model.Customer;
 import com.digitalstudio.app.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,9 +22,17 @@ import java.util.concurrent.atomic.AtomicLong;
 @Service
 public class CustomerService {
 
+    private static final int SUGGESTION_LIMIT = 20;
+
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerIndex customerIndex;
+
+    @Autowired
+    private CursorPaginationService cursorPaginationService;
+
     private final AtomicLong currentSequence = new AtomicLong(0);
     private final Map<String, Long> instanceReservations = new ConcurrentHashMap<>();
     private volatile long lastPrefix = 0;
@@ -90,11 +103,28 @@ public class CustomerService {
     public Page<Customer> getAllCustomers(String search, Pageable pageable) {
         if (search != null && !search.trim().isEmpty()) {
             String q = search.trim();
+            if (customerIndex.isReady()) {
+                // Matches come newest first from the index; only the requested page is loaded
+                List<Long> ids = customerIndex.matchAll(q);
+                int from = (int) Math.min(pageable.getOffset(), ids.size());
+                int to = Math.min(from + pageable.getPageSize(), ids.size());
+                return new PageImpl<>(loadInOrder(ids.subList(from, to)), pageable, ids.size());
+            }
             return customerRepository.findByNameContainingIgnoreCaseOrMobileContaining(q, q, pageable);
         }
         return customerRepository.findAll(pageable);
     }
 
+    // Keyset variant of getAllCustomers (see CursorPaginationService); searches name and mobile in the DB
+    public CursorPage<Customer> getCustomersAfter(String search, String cursor, int size, boolean withTotal) {
+        String q = search != null ? search.trim() : "";
+        Specification<Customer> filter = (root, query, cb) -> q.isEmpty() ? cb.conjunction()
+                : cb.or(cb.like(cb.lower(root.get("name")), "%" + q.toLowerCase() + "%"),
+                        cb.like(root.get("mobile"), "%" + q + "%"));
+        return cursorPaginationService.fetch(customerRepository, filter, "id", Customer::getCreatedAt,
+                Customer::getId, cursor, size, withTotal ? "customers|" + q : null);
+    }
+
     public Optional<Customer> searchCustomer(String query) {
         if (query == null)
             return Optional.empty();
@@ -102,7 +132,7 @@ public class CustomerService {
 
         // If 10 digits, search ONLY Mobile
         if (query.matches("\\d{10}")) {
-            return customerRepository.findByMobile(query);
+            return customerRepository.findFirstByMobileOrderByIdAsc(query);
         }
 
         // Otherwise search ID
@@ -118,6 +148,24 @@ public class CustomerService {
         if (query == null || query.trim().length() < 3) {
             return List.of();
         }
+        if (customerIndex.isReady()) {
+            return loadInOrder(customerIndex.suggest(query.trim(), SUGGESTION_LIMIT));
+        }
         return customerRepository.findByMobileContaining(query.trim());
     }
+
+    private List<Customer> loadInOrder(List<Long> ids) {
+        Map<Long, Customer> byId = new HashMap<>();
+        for (Customer customer : customerRepository.findAllById(ids)) {
+            byId.put(customer.getId(), customer);
+        }
+        List<Customer> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Customer customer = byId.get(id);
+            if (customer != null) {
+                ordered.add(customer);
+            }
+        }
+        return ordered;
+    }
 }
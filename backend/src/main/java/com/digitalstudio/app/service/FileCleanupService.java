@@ -1,11 +1,17 @@
 package com.digitalstudio.app.service;
 
+import com.digitalstudio.app.model.CleanupRun;
 import com.digitalstudio.app.model.FileDeleteQueue;
 import com.digitalstudio.app.model.SourceType;
 import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.CleanupRunRepository;
 import com.digitalstudio.app.repository.FileDeleteQueueRepository;
 import com.digitalstudio.app.repository.UploadRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -13,31 +19,67 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class FileCleanupService {
 
+    private static final DateTimeFormatter REMARK_TIME = DateTimeFormatter.ofPattern("dd/MM/yy HH:mm");
+
     private final ConfigurationService configurationService;
     private final UploadRepository uploadRepository;
     private final FileDeleteQueueRepository fileDeleteQueueRepository;
     private final PlatformTransactionManager transactionManager;
+    private final FileServingService fileServingService;
+    private final ThumbnailService thumbnailService;
+    private final CleanupRunRepository cleanupRunRepository;
+    private final TaskScheduler taskScheduler;
+    private final BlobStorageService blobStorageService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final CompressionService compressionService;
+    private final SearchIndexService searchIndexService;
 
     @Autowired
     public FileCleanupService(ConfigurationService configurationService,
             UploadRepository uploadRepository,
             FileDeleteQueueRepository fileDeleteQueueRepository,
-            PlatformTransactionManager transactionManager) {
+            PlatformTransactionManager transactionManager,
+            FileServingService fileServingService,
+            ThumbnailService thumbnailService,
+            CleanupRunRepository cleanupRunRepository,
+            TaskScheduler taskScheduler,
+            BlobStorageService blobStorageService,
+            ChunkedUploadService chunkedUploadService,
+            CompressionService compressionService,
+            SearchIndexService searchIndexService) {
         this.configurationService = configurationService;
         this.uploadRepository = uploadRepository;
         this.fileDeleteQueueRepository = fileDeleteQueueRepository;
         this.transactionManager = transactionManager;
+        this.fileServingService = fileServingService;
+        this.thumbnailService = thumbnailService;
+        this.cleanupRunRepository = cleanupRunRepository;
+        this.taskScheduler = taskScheduler;
+        this.blobStorageService = blobStorageService;
+        this.chunkedUploadService = chunkedUploadService;
+        this.compressionService = compressionService;
+        this.searchIndexService = searchIndexService;
     }
 
     // --- User Actions ---
@@ -54,7 +96,7 @@ public class FileCleanupService {
         // Remove from Queue
         fileDeleteQueueRepository.deleteByUploadId(upload.getUploadId());
 
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yy HH:mm"));
+        String timestamp = LocalDateTime.now().format(REMARK_TIME);
         String userRemark = (remarks != null && !remarks.trim().isEmpty()) ? "\nRemark : " + remarks : "";
 
         // Replaced logic as per requirement
@@ -68,69 +110,241 @@ public class FileCleanupService {
 
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FileCleanupService.class);
 
-    @org.springframework.scheduling.annotation.Scheduled(cron = "0 * * * * ?") // Every minute
-    public void runScheduledTasks() {
-        try {
-            // Check time config
-            String timeConfig = configurationService.getValue("FILE_DELETION_SCHEDULED_TIME");
-            if (timeConfig != null && !timeConfig.trim().isEmpty()) {
-                try {
-                    java.time.LocalTime configTime = java.time.LocalTime.parse(timeConfig.trim());
-                    java.time.LocalTime now = java.time.LocalTime.now();
-                    if (now.getHour() != configTime.getHour() || now.getMinute() != configTime.getMinute()) {
-                        return; // Not time yet
-                    }
-                } catch (Exception e) {
-                    return; // Invalid config
-                }
-            } else {
-                return; // Config not set
-            }
+    // Rows per query / transaction; keeps each run's memory and lock time bounded
+    private static final int CHUNK_SIZE = 500;
+    private static final int DELETE_THREADS = 4;
 
-            // Execute sequentially
-            new TransactionTemplate(transactionManager).execute(status -> {
-                doReceiptSoftDeleteCheck();
-                return null;
-            });
+    private final java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean();
 
-            new TransactionTemplate(transactionManager).execute(status -> {
-                doHardDeleteCheck();
-                return null;
-            });
+    // Files are removed concurrently (blocking I/O, possibly on a network share)
+    private final ExecutorService deleters = Executors.newFixedThreadPool(DELETE_THREADS, new java.util.concurrent.ThreadFactory() {
+        private final AtomicInteger n = new AtomicInteger();
 
-        } catch (Throwable e) {
-            logger.error("Scheduled Task Failed", e);
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "file-cleanup-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
         }
+    });
+
+    // Next fire of FILE_DELETION_SCHEDULED_TIME; guarded by 'this'
+    private ScheduledFuture<?> nextRun;
+    private LocalTime armedTime;
+    private LocalDateTime nextRunAt;
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            if (nextRun != null) {
+                nextRun.cancel(false);
+            }
+        }
+        deleters.shutdownNow();
     }
 
-    // --- Internal Logic ---
+    // At startup: catch up on a run missed while the app was down, then arm the schedule.
+    // Done on the scheduler thread so a long catch-up doesn't hold up startup.
+    @EventListener(ApplicationReadyEvent.class)
+    public void startScheduler() {
+        taskScheduler.schedule(() -> {
+            try {
+                catchUpMissedRun();
+            } catch (RuntimeException e) {
+                logger.error("File cleanup catch-up failed", e);
+            }
+            armSchedule(null);
+        }, java.time.Instant.now());
+    }
 
-    private void doReceiptSoftDeleteCheck() {
-        String durationStr = configurationService.getValue("BILL_PAYMENT_RECEIPT_DELETE_DURATION_DAYS");
-        if (durationStr == null || durationStr.trim().isEmpty())
+    private void catchUpMissedRun() {
+        LocalTime time = configurationService.getLocalTime("FILE_DELETION_SCHEDULED_TIME");
+        if (time == null) {
             return;
+        }
+        LocalDateTime lastDue = LocalDate.now().atTime(time);
+        if (lastDue.isAfter(LocalDateTime.now())) {
+            lastDue = lastDue.minusDays(1);
+        }
+        // Without any history there is nothing to say a run was missed. One run
+        // covers any number of missed days since retention works on cutoffs.
+        CleanupRun last = cleanupRunRepository.findTopByOrderByStartedAtDesc().orElse(null);
+        if (last != null && last.getStartedAt().isBefore(lastDue)) {
+            logger.info("File cleanup due at {} was missed, running now", lastDue);
+            runCleanup("CATCH_UP");
+        }
+    }
 
-        try {
-            int days = Integer.parseInt(durationStr.trim());
-            if (days < 0)
+    // Re-arm only when the configured time actually changed
+    @EventListener
+    public void onValuesChanged(ConfigurationService.ValuesChangedEvent event) {
+        LocalTime time = configurationService.getLocalTime("FILE_DELETION_SCHEDULED_TIME");
+        synchronized (this) {
+            if (java.util.Objects.equals(time, armedTime)) {
                 return;
+            }
+        }
+        armSchedule(null);
+    }
 
-            LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+    // Schedules the next fire strictly after 'after' (or now), replacing any pending one
+    private synchronized void armSchedule(LocalDateTime after) {
+        if (nextRun != null) {
+            nextRun.cancel(false);
+            nextRun = null;
+        }
+        // Null when not set or invalid: no scheduled cleanup
+        armedTime = configurationService.getLocalTime("FILE_DELETION_SCHEDULED_TIME");
+        nextRunAt = null;
+        if (armedTime == null) {
+            return;
+        }
+        LocalDateTime base = LocalDateTime.now();
+        if (after != null && after.isAfter(base)) {
+            base = after;
+        }
+        LocalDateTime next = base.toLocalDate().atTime(armedTime);
+        if (!next.isAfter(base)) {
+            next = next.plusDays(1);
+        }
+        LocalDateTime fireAt = next;
+        nextRunAt = fireAt;
+        nextRun = taskScheduler.schedule(() -> runScheduledTasks(fireAt),
+                fireAt.atZone(ZoneId.systemDefault()).toInstant());
+        logger.info("Next file cleanup at {}", fireAt);
+    }
 
-            // Find bill payments older than cutoff and NOT deleted
-            List<Upload> toSoftDelete = uploadRepository.findAll().stream()
-                    .filter(u -> u.getUploadedFrom() == SourceType.BILL_PAYMENT)
-                    .filter(u -> !u.isMarkDeleted())
-                    .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isBefore(cutoff))
-                    .collect(Collectors.toList());
+    private void runScheduledTasks(LocalDateTime firedFor) {
+        try {
+            runCleanup("SCHEDULED");
+        } catch (Throwable e) {
+            logger.error("Scheduled Task Failed", e);
+        } finally {
+            // From the slot just served, so a run finishing early can't fire twice
+            armSchedule(firedFor);
+        }
+    }
 
-            for (Upload upload : toSoftDelete) {
-                performSoftDelete(upload, null, "Deleted via scheduler");
+    // Soft-delete phase, hard-delete phase, then compaction of cold files; recorded in cleanup_runs.
+    // Returns null if a run is already in progress.
+    public CleanupRun runCleanup(String trigger) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        CleanupRun run = new CleanupRun();
+        run.setTriggerType(trigger);
+        run.setStartedAt(LocalDateTime.now());
+        long start = System.nanoTime();
+        try {
+            Map<String, Integer> softDeleted = new LinkedHashMap<>();
+            for (SourceType source : SourceType.values()) {
+                int count = doRetentionSoftDelete(source);
+                if (count >= 0) {
+                    softDeleted.put(source.name(), count);
+                }
+            }
+            run.setSoftDeleted(softDeleted.values().stream().mapToInt(Integer::intValue).sum());
+            run.setSoftDeletedBySource(softDeleted.toString().replaceAll("[{}]", ""));
+
+            int[] hard = doHardDeleteCheck();
+            run.setHardDeleted(hard[0]);
+            run.setDeleteFailures(hard[1]);
+
+            // Chunked uploads nobody resumed; their pre-sized partial files can be large
+            int expiryHours = configurationService.getInt("UPLOAD_SESSION_EXPIRY_HOURS", 24);
+            run.setExpiredUploadSessions(
+                    chunkedUploadService.purgeAbandoned(LocalDateTime.now().minusHours(expiryHours)));
+
+            // Last, so files about to be deleted aren't compressed first
+            CompressionService.Result compaction = compressionService.compactColdUploads();
+            run.setCompressed(compaction.compressed());
+            run.setBytesSaved(compaction.bytesSaved());
+        } catch (RuntimeException e) {
+            run.setError(e.toString());
+            throw e;
+        } finally {
+            run.setFinishedAt(LocalDateTime.now());
+            run.setDurationMs((System.nanoTime() - start) / 1_000_000);
+            try {
+                cleanupRunRepository.save(run);
+            } catch (RuntimeException e) {
+                logger.error("Could not record file cleanup run", e);
             }
+            running.set(false);
+        }
+
+        logger.info("File cleanup ({}) done in {} ms: soft-deleted {}, hard-deleted {}, {} file delete failure(s), "
+                + "{} expired upload session(s), compressed {} ({} bytes saved)", trigger, run.getDurationMs(),
+                run.getSoftDeletedBySource(), run.getHardDeleted(), run.getDeleteFailures(),
+                run.getExpiredUploadSessions(), run.getCompressed(), run.getBytesSaved());
+        return run;
+    }
+
+    public Map<String, Object> getLastRunSummary() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("running", running.get());
+        synchronized (this) {
+            result.put("nextRunAt", nextRunAt);
+        }
+        result.put("lastRun", cleanupRunRepository.findTopByOrderByStartedAtDesc().orElse(null));
+        return result;
+    }
+
+    public List<CleanupRun> getRunHistory() {
+        return cleanupRunRepository.findTop30ByOrderByStartedAtDesc();
+    }
+
+    // --- Internal Logic ---
+
+    // Retention days per source: <SOURCE>_RETENTION_DAYS, e.g. PHOTO_ORDERS_RETENTION_DAYS.
+    // Bill payments keep honouring the older BILL_PAYMENT_RECEIPT_DELETE_DURATION_DAYS.
+    // Unset or negative means uploads from that source are kept forever.
+    private Integer retentionDays(SourceType source) {
+        Integer days = configurationService.getInteger(source.name() + "_RETENTION_DAYS");
+        if (days == null && source == SourceType.BILL_PAYMENT) {
+            days = configurationService.getInteger("BILL_PAYMENT_RECEIPT_DELETE_DURATION_DAYS");
+        }
+        return days;
+    }
+
+    // Returns the number of uploads soft deleted, or -1 when the source has no retention rule
+    private int doRetentionSoftDelete(SourceType source) {
+        Integer days = retentionDays(source);
+        if (days == null || days < 0)
+            return -1;
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int total = 0;
+        while (true) {
+            // Marked rows drop out of the candidate query, so the first page is always the next chunk
+            Integer updated = tx.execute(status -> {
+                List<String> ids = uploadRepository.findRetentionCandidates(source, cutoff,
+                        PageRequest.of(0, CHUNK_SIZE));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                LocalDateTime now = LocalDateTime.now();
+
+                // Queue files that are still on disk and not already queued
+                List<FileDeleteQueue> entries = new ArrayList<>();
+                for (String uploadId : uploadRepository.findAvailableNotQueued(ids)) {
+                    FileDeleteQueue queueEntry = new FileDeleteQueue();
+                    queueEntry.setUploadId(uploadId);
+                    queueEntry.setSoftDeleteTime(now);
+                    entries.add(queueEntry);
+                }
+                fileDeleteQueueRepository.saveAll(entries);
 
-        } catch (NumberFormatException e) {
-            // Ignore
+                String remark = String.format("Deleted via scheduler on %s", now.format(REMARK_TIME));
+                return uploadRepository.markSoftDeleted(ids, remark, now);
+            });
+            if (updated == null || updated == 0) {
+                break;
+            }
+            total += updated;
         }
+        return total;
     }
 
     private void performSoftDelete(Upload upload, String userRemarks, String sourcePrefix) {
@@ -145,7 +359,7 @@ public class FileCleanupService {
             fileDeleteQueueRepository.save(queueEntry);
         }
 
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yy HH:mm"));
+        String timestamp = LocalDateTime.now().format(REMARK_TIME);
         String remarkContent = (userRemarks != null && !userRemarks.trim().isEmpty()) ? "\nRemark : " + userRemarks
                 : "";
 
@@ -155,74 +369,78 @@ public class FileCleanupService {
         uploadRepository.save(upload);
     }
 
-    private void doHardDeleteCheck() {
-        String durationStr = configurationService.getValue("FILE_ABSOLUTE_DELETE_DAYS");
-        if (durationStr == null || durationStr.trim().isEmpty())
-            return;
+    // Returns { uploads hard deleted, file delete failures }
+    private int[] doHardDeleteCheck() {
+        Integer days = configurationService.getInteger("FILE_ABSOLUTE_DELETE_DAYS");
+        if (days == null)
+            return new int[2];
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int deleted = 0;
+        int failures = 0;
+        while (true) {
+            List<FileDeleteQueue> entries = fileDeleteQueueRepository.findExpired(cutoff, PageRequest.of(0, CHUNK_SIZE));
+            if (entries.isEmpty()) {
+                break;
+            }
+            List<String> uploadIds = new ArrayList<>(entries.size());
+            List<UUID> entryIds = new ArrayList<>(entries.size());
+            for (FileDeleteQueue entry : entries) {
+                uploadIds.add(entry.getUploadId());
+                entryIds.add(entry.getId());
+            }
 
-        try {
-            int days = Integer.parseInt(durationStr.trim());
-            LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
-
-            logger.info("DEBUG: Hard Delete Check Running");
-            logger.info("DEBUG: Configured Days: " + days);
-            logger.info("DEBUG: Cutoff Time: " + cutoff);
-
-            List<FileDeleteQueue> allEntries = fileDeleteQueueRepository.findAll();
-            logger.info("DEBUG: Queue Size=" + allEntries.size());
-
-            // Avoid Stream logic inside critical section to debug
-            for (FileDeleteQueue entry : allEntries) {
-                boolean expired = false;
-                if (entry.getSoftDeleteTime() != null) {
-                    expired = entry.getSoftDeleteTime().isBefore(cutoff);
-                    logger.info("DEBUG: Check ID=" + entry.getUploadId() + " Time=" + entry.getSoftDeleteTime()
-                            + " Expired=" + expired);
-                } else {
-                    logger.info("DEBUG: Check ID=" + entry.getUploadId() + " Time=NULL");
+            // Remove the files first; failures are logged and counted but the upload is
+            // still flagged unavailable and dequeued, as before
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Map<String, Object> row : uploadRepository.findAvailabilityByUploadIdIn(uploadIds)) {
+                String uploadPath = (String) row.get("uploadPath");
+                String fileHash = (String) row.get("fileHash");
+                if (uploadPath != null && fileHash != null) {
+                    // Shared blob: only goes when this was the last reference
+                    futures.add(deleters.submit(() -> blobStorageService.release(fileHash, Paths.get(uploadPath))));
+                } else if (uploadPath != null) {
+                    futures.add(deleters.submit(() -> deleteFile(uploadPath)));
                 }
-
-                if (expired) {
-                    Optional<Upload> uploadOpt = uploadRepository.findById(entry.getUploadId());
-                    if (uploadOpt.isPresent()) {
-                        performHardDelete(uploadOpt.get());
+            }
+            for (Future<Boolean> future : futures) {
+                try {
+                    if (!future.get()) {
+                        failures++;
                     }
-                    fileDeleteQueueRepository.delete(entry);
-                    logger.info("DEBUG: Deleted ID=" + entry.getUploadId());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("File cleanup interrupted");
+                } catch (ExecutionException e) {
+                    failures++;
                 }
             }
 
-        } catch (Throwable e) {
-            // Very simple logger
-            try {
-                logger.error("Failed Hard Delete", e);
-            } catch (Throwable ex) {
-                e.printStackTrace();
+            String appendRemark = String.format("\nFile removed on %s", LocalDateTime.now().format(REMARK_TIME));
+            Integer updated = tx.execute(status -> {
+                int count = uploadRepository.markHardDeleted(uploadIds, appendRemark, LocalDateTime.now());
+                fileDeleteQueueRepository.deleteAllByIdIn(entryIds);
+                return count;
+            });
+            deleted += updated != null ? updated : 0;
+
+            for (String uploadId : uploadIds) {
+                fileServingService.evict(uploadId);
+                thumbnailService.evict(uploadId);
+                searchIndexService.remove(SearchIndexService.Type.UPLOAD, uploadId);
             }
         }
+        return new int[] { deleted, failures };
     }
 
-    @Transactional
-    private void performHardDelete(Upload upload) {
-        if (upload.getUploadPath() != null) {
-            try {
-                Path path = Paths.get(upload.getUploadPath());
-                Files.deleteIfExists(path);
-            } catch (IOException e) {
-                System.err.println("Failed to hard delete file: " + upload.getUploadPath());
-            }
+    private static boolean deleteFile(String uploadPath) {
+        try {
+            Files.deleteIfExists(Paths.get(uploadPath));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to hard delete file: " + uploadPath);
+            return false;
         }
-
-        upload.setIsAvailable(false); // Flag as removed/unavailable
-        // upload.setUploadPath(null); // Retain path as per user request
-
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yy HH:mm"));
-        String appendRemark = String.format("\nFile removed on %s", timestamp);
-
-        // Append instead of replace for Hard Delete
-        String currentRemark = upload.getRemarks() != null ? upload.getRemarks() : "";
-        upload.setRemarks(currentRemark + appendRemark);
-
-        uploadRepository.save(upload);
     }
 }
@@ -0,0 +1,280 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.UploadRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// Serves stored upload files with HTTP caching and range support.
+//
+// Upload IDs are never reused for different content, so responses carry a long
+// private max-age plus a strong ETag (size + mtime) for revalidation. Bodies go
+// out through Tomcat's sendfile when the connector supports it, otherwise via
+// FileChannel.transferTo; neither copies the file through the heap. Files the
+// compression tier gzipped are sent as stored to clients that accept gzip and
+// inflated on the fly for the rest.
+@Service
+public class FileServingService {
+
+    private static final int LOCATION_CACHE_SIZE = 4096;
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePrivate()
+            .immutable();
+
+    // Tomcat's request attributes for zero-copy sends (see DefaultServlet)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    private static final int INFLATE_BUFFER = 64 * 1024;
+
+    // 'name' is the download name; deduplicated blobs are stored under their hash.
+    // 'codec' is Upload.codec (see CompressionService).
+    private record Location(Path path, String name, MediaType mediaType, String codec) {
+    }
+
+    // 'size' is the size on disk, i.e. compressed for gzip files
+    public record ServedFile(Path path, String name, MediaType mediaType, long size, long lastModified,
+            String codec) {
+        String etag() {
+            return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+
+        public boolean isGzipped() {
+            return CompressionService.GZIP.equals(codec);
+        }
+    }
+
+    // uploadId -> location on disk, so repeat views skip the DB lookup. Entries are
+    // re-checked against the filesystem on every request and dropped when stale.
+    private final Map<String, Location> locations = Collections
+            .synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Location> eldest) {
+                    return size() > LOCATION_CACHE_SIZE;
+                }
+            });
+
+    public ServedFile resolve(String uploadId) {
+        Location location = locations.get(uploadId);
+        if (location != null) {
+            ServedFile file = stat(location);
+            if (file != null) {
+                return file;
+            }
+            locations.remove(uploadId);
+        }
+
+        // Strict lookup by ID; serve using the absolute path from DB
+        Upload upload = uploadRepository.findById(uploadId).orElse(null);
+        if (upload == null || upload.getUploadPath() == null || upload.getUploadPath().isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(upload.getUploadPath());
+        String name = upload.getExtension() != null ? upload.getUploadId() + upload.getExtension()
+                : path.getFileName().toString();
+        location = new Location(path, name,
+                MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM), upload.getCodec());
+
+        ServedFile file = stat(location);
+        if (file != null) {
+            locations.put(uploadId, location);
+        }
+        return file;
+    }
+
+    public void evict(String uploadId) {
+        locations.remove(uploadId);
+    }
+
+    // Writes the response directly; the caller must not write anything afterwards.
+    public void send(ServedFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.getHeaderValue());
+        if (file.isGzipped()) {
+            sendGzipped(file, request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Sets ETag / Last-Modified and answers 304 (or 412) when the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+            return;
+        }
+
+        response.setContentType(file.mediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(file.name()).build().toString());
+
+        long start = 0;
+        long end = file.size() - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, file)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Single ranges only (PDF viewers / media seeks); multi-range requests get the whole file
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(file.size());
+                end = range.getRangeEnd(file.size());
+                if (file.size() == 0 || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + end + "/" + file.size());
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentLengthLong(Math.max(length, 0));
+        if (length <= 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat streams the file from the kernel after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        }
+    }
+
+    // No ranges: offsets into the original can't be mapped onto the gzip stream
+    private void sendGzipped(ServedFile file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean passThrough = acceptsGzip(request);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // The two representations differ, so they get different validators
+        String etag = passThrough ? file.etag().replaceFirst("\"$", "-gz\"") : file.etag();
+        if (new ServletWebRequest(request, response).checkNotModified(etag, file.lastModified())) {
+            return;
+        }
+
+        response.setContentType(file.mediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(file.name()).build().toString());
+        if (passThrough) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLengthLong(file.size());
+        }
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (passThrough) {
+            Files.copy(file.path(), out);
+        } else {
+            // Inflated size isn't stored; the response is chunked
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file.path()), INFLATE_BUFFER)) {
+                byte[] buffer = new byte[INFLATE_BUFFER];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (values != null && values.hasMoreElements()) {
+            for (String coding : values.nextElement().split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    // "gzip;q=0" explicitly refuses it
+                    return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    // If-Range: only honour the Range header when the client's validator is current
+    private boolean ifRangeMatches(HttpServletRequest request, ServedFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(file.etag());
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since != -1 && file.lastModified() / 1000 <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private ServedFile stat(Location location) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(location.path(), BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) {
+                return null;
+            }
+            return new ServedFile(location.path(), location.name(), location.mediaType(), attrs.size(),
+                    attrs.lastModifiedTime().toMillis(), location.codec());
+        } catch (IOException e) {
+            return null; // Missing or unreadable
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.digitalstudio.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
+
+@Service
+public class FileStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // Fixed-size copy buffer: heap usage per upload stays constant regardless of
+    // file size
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> COPY_BUFFER = ThreadLocal
+            .withInitial(() -> ByteBuffer.allocateDirect(COPY_BUFFER_SIZE));
+
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+
+    // heapPeakBytes: highest heap usage seen while this file was copied. The peak is
+    // JVM-wide, so uploads running at the same time share (and reset) it.
+    public record StoreResult(Path path, long bytes, long elapsedNanos, long heapPeakBytes) {
+        public long bytesPerSecond() {
+            return elapsedNanos > 0 ? (bytes * 1_000_000_000L) / elapsedNanos : bytes;
+        }
+    }
+
+    public StoreResult store(MultipartFile file, Path target) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in, target);
+        }
+    }
+
+    // Streams into a sibling ".part" file and moves it into place, so a
+    // half-written file is never visible under its final name.
+    public StoreResult store(InputStream in, Path target) throws IOException {
+        return store(in, target, null);
+    }
+
+    // Same, feeding every byte written through 'digest' (content hashing without a second read)
+    public StoreResult store(InputStream in, Path target, MessageDigest digest) throws IOException {
+        long start = System.nanoTime();
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        long bytes;
+        resetHeapPeak();
+        try {
+            bytes = copy(in, temp, digest);
+            moveIntoPlace(temp, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long heapPeak = heapPeakBytes();
+        StoreResult result = new StoreResult(target, bytes, elapsed, heapPeak);
+        logger.info("Stored {} ({} bytes) in {} ms at {} KB/s, heap peak {} MB",
+                target.getFileName(), bytes, elapsed / 1_000_000, result.bytesPerSecond() / 1024,
+                heapPeak / (1024 * 1024));
+        return result;
+    }
+
+    // Starts a heap peak measurement window (see heapPeakBytes)
+    public void resetHeapPeak() {
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    // Sum of each heap pool's peak since resetHeapPeak(); the pools may peak at
+    // different moments, so this is an upper bound
+    public long heapPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private long copy(InputStream in, Path dest, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = COPY_BUFFER.get();
+        long total = 0;
+        ReadableByteChannel source = Channels.newChannel(in);
+        try (FileChannel out = FileChannel.open(dest, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.clear();
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (digest != null) {
+                    digest.update(buffer);
+                    buffer.rewind();
+                }
+                while (buffer.hasRemaining()) {
+                    total += out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return total;
+    }
+
+    // Moves an already written file (e.g. a staged blob) to its final name
+    public void move(Path source, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        moveIntoPlace(source, target);
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.service.LogService.LogEntry;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+// Pushes log events to SSE subscribers off the logging thread.
+//
+// Producers only offer to a bounded queue (never block). A single worker drains
+// it into batches (every FLUSH_INTERVAL_MS or BATCH_SIZE events) and hands each
+// batch to every subscriber's own bounded backlog. Each subscriber is flushed by
+// its own task, so one slow browser tab only delays itself; when its backlog is
+// full the oldest events are dropped and an "overflow" frame tells it how many.
+//
+// Deliberately not a Spring bean: LogService owns it, which keeps it out of the
+// LoggingAspect pointcut (tracing every publish would generate more log events).
+public class LogBroadcaster {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int BATCH_SIZE = 200;
+    private static final long FLUSH_INTERVAL_MS = 250;
+    private static final int SUBSCRIBER_BACKLOG = 5_000;
+
+    private final BlockingQueue<LogEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedAtSource = new AtomicLong();
+    private final AtomicInteger subscriberIds = new AtomicInteger();
+    private volatile long lastPublishedSeq;
+
+    private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "log-sse-sender");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Thread worker = new Thread(this::run, "log-broadcaster");
+    private volatile boolean running = true;
+
+    public void start() {
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        senders.shutdownNow();
+        for (Subscriber sub : subscribers) {
+            sub.emitter.complete();
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public void publish(LogEntry entry) {
+        if (!queue.offer(entry)) {
+            droppedAtSource.incrementAndGet();
+        }
+    }
+
+    // Registers the emitter, then sends everything after 'since' from the
+    // backlog supplier before any live batch, without gaps or duplicates.
+    public void subscribe(SseEmitter emitter, long since, LongFunction<List<LogEntry>> backlog,
+            String backlogEventName) throws Exception {
+        Subscriber sub = new Subscriber(subscriberIds.incrementAndGet(), emitter, since);
+        emitter.onCompletion(() -> subscribers.remove(sub));
+        emitter.onTimeout(() -> subscribers.remove(sub));
+        emitter.onError((e) -> subscribers.remove(sub));
+
+        // Register first so nothing published meanwhile is missed; live batches are
+        // held in the backlog until the initial frame has been sent.
+        subscribers.add(sub);
+        synchronized (sub) {
+            List<LogEntry> initial = backlog.apply(since);
+            sub.emitter.send(SseEmitter.event().name(backlogEventName).id(String.valueOf(lastSeqOf(initial, since)))
+                    .data(initial));
+            sub.lastSentSeq = lastSeqOf(initial, since);
+            sub.ready = true;
+        }
+        sub.scheduleFlush();
+    }
+
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> subs = new ArrayList<>();
+        for (Subscriber sub : subscribers) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("id", sub.id);
+            s.put("lastSentSeq", sub.lastSentSeq);
+            s.put("lag", Math.max(0, lastPublishedSeq - sub.lastSentSeq));
+            s.put("pending", sub.pendingSize());
+            s.put("dropped", sub.dropped.get());
+            subs.add(s);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("droppedAtSource", droppedAtSource.get());
+        stats.put("lastPublishedSeq", lastPublishedSeq);
+        stats.put("subscribers", subs);
+        return stats;
+    }
+
+    private void run() {
+        List<LogEntry> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                LogEntry first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MS;
+                while (batch.size() < BATCH_SIZE) {
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= BATCH_SIZE || remaining <= 0) {
+                        break;
+                    }
+                    LogEntry next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                List<LogEntry> frame = List.copyOf(batch);
+                batch.clear();
+                lastPublishedSeq = frame.get(frame.size() - 1).seq();
+                for (Subscriber sub : subscribers) {
+                    sub.offer(frame);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                batch.clear(); // Never let the worker die
+            }
+        }
+    }
+
+    private static long lastSeqOf(List<LogEntry> entries, long fallback) {
+        return entries.isEmpty() ? fallback : Math.max(fallback, entries.get(entries.size() - 1).seq());
+    }
+
+    private class Subscriber {
+        private final int id;
+        private final SseEmitter emitter;
+        private final ArrayDeque<LogEntry> backlog = new ArrayDeque<>();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+        private long pendingOverflow; // guarded by backlog
+        private volatile long lastSentSeq;
+        private volatile boolean ready;
+        private volatile boolean closed;
+
+        Subscriber(int id, SseEmitter emitter, long since) {
+            this.id = id;
+            this.emitter = emitter;
+            this.lastSentSeq = since;
+        }
+
+        void offer(List<LogEntry> frame) {
+            synchronized (backlog) {
+                backlog.addAll(frame);
+                while (backlog.size() > SUBSCRIBER_BACKLOG) {
+                    backlog.pollFirst();
+                    pendingOverflow++;
+                    dropped.incrementAndGet();
+                }
+            }
+            scheduleFlush();
+        }
+
+        int pendingSize() {
+            synchronized (backlog) {
+                return backlog.size();
+            }
+        }
+
+        void scheduleFlush() {
+            if (ready && !closed && flushing.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::flush);
+                } catch (RuntimeException e) {
+                    flushing.set(false); // Executor shut down
+                }
+            }
+        }
+
+        private void flush() {
+            try {
+                while (true) {
+                    List<LogEntry> frame = new ArrayList<>(BATCH_SIZE);
+                    long overflow;
+                    synchronized (backlog) {
+                        while (frame.size() < BATCH_SIZE && !backlog.isEmpty()) {
+                            LogEntry e = backlog.pollFirst();
+                            if (e.seq() > lastSentSeq) {
+                                frame.add(e);
+                            }
+                        }
+                        overflow = pendingOverflow;
+                        pendingOverflow = 0;
+                    }
+                    if (frame.isEmpty() && overflow == 0) {
+                        break;
+                    }
+                    synchronized (this) {
+                        if (overflow > 0) {
+                            emitter.send(SseEmitter.event().name("overflow").data(Map.of("dropped", overflow)));
+                        }
+                        if (!frame.isEmpty()) {
+                            long seq = frame.get(frame.size() - 1).seq();
+                            emitter.send(SseEmitter.event().name("log").id(String.valueOf(seq)).data(frame));
+                            lastSentSeq = seq;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                closed = true;
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                flushing.set(false);
+            }
+            // Events may have arrived between the last poll and clearing the flag
+            if (pendingSize() > 0) {
+                scheduleFlush();
+            }
+        }
+    }
+}
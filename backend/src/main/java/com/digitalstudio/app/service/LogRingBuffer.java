@@ -0,0 +1,108 @@
+package com.digitalstudio.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixed-capacity ring of raw log events kept in parallel arrays. Appends are
+// O(1) and allocation-free; formatting is left to whoever reads the events.
+// Every event gets a sequence number (1, 2, 3...) that survives resize and clear,
+// so readers can resume from the last event they saw.
+public class LogRingBuffer {
+
+    public interface EventMapper<T> {
+        T map(long seq, long timestamp, int level, String message, String thread);
+    }
+
+    private long[] timestamps;
+    private byte[] levels;
+    private String[] messages;
+    private String[] threads;
+
+    private int head; // next write position
+    private int size;
+    private long lastSeq; // sequence number of the newest entry
+
+    public LogRingBuffer(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    public synchronized long append(long timestamp, int level, String message, String thread) {
+        timestamps[head] = timestamp;
+        levels[head] = (byte) level;
+        messages[head] = message;
+        threads[head] = thread;
+        head = (head + 1) % timestamps.length;
+        if (size < timestamps.length) {
+            size++;
+        }
+        return ++lastSeq;
+    }
+
+    public synchronized int capacity() {
+        return timestamps.length;
+    }
+
+    // Keeps the most recent entries that fit into the new capacity
+    public synchronized void resize(int newCapacity) {
+        newCapacity = Math.max(1, newCapacity);
+        if (newCapacity == timestamps.length) {
+            return;
+        }
+        long[] oldTimestamps = timestamps;
+        byte[] oldLevels = levels;
+        String[] oldMessages = messages;
+        String[] oldThreads = threads;
+        int keep = Math.min(size, newCapacity);
+        int start = index(size - keep, oldTimestamps.length);
+
+        allocate(newCapacity);
+        for (int i = 0; i < keep; i++) {
+            int from = (start + i) % oldTimestamps.length;
+            timestamps[i] = oldTimestamps[from];
+            levels[i] = oldLevels[from];
+            messages[i] = oldMessages[from];
+            threads[i] = oldThreads[from];
+        }
+        size = keep;
+        head = keep % newCapacity;
+    }
+
+    public synchronized <T> List<T> snapshot(EventMapper<T> mapper) {
+        return snapshotSince(0, mapper);
+    }
+
+    // Entries with a sequence number greater than the given one, oldest first
+    public synchronized <T> List<T> snapshotSince(long since, EventMapper<T> mapper) {
+        long firstSeq = lastSeq - size + 1;
+        int skip = (int) Math.max(0, Math.min(size, since - firstSeq + 1));
+        List<T> result = new ArrayList<>(size - skip);
+        int start = index(0, timestamps.length);
+        for (int i = skip; i < size; i++) {
+            int pos = (start + i) % timestamps.length;
+            result.add(mapper.map(firstSeq + i, timestamps[pos], levels[pos], messages[pos], threads[pos]));
+        }
+        return result;
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    public synchronized void clear() {
+        allocate(timestamps.length);
+    }
+
+    // Array position of the n-th oldest entry
+    private int index(int n, int length) {
+        return (head - size + n + length) % length;
+    }
+
+    private void allocate(int capacity) {
+        timestamps = new long[capacity];
+        levels = new byte[capacity];
+        messages = new String[capacity];
+        threads = new String[capacity];
+        head = 0;
+        size = 0;
+    }
+}
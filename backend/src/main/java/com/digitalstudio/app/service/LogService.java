@@ -5,18 +5,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 @Service
 public class LogService {
 
-    private final java.util.Deque<LogEntry> logBuffer = new java.util.concurrent.ConcurrentLinkedDeque<>();
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final LogBroadcaster broadcaster = new LogBroadcaster();
     private static final Logger logger = LoggerFactory.getLogger(LogService.class);
 
     @org.springframework.beans.factory.annotation.Autowired
@@ -34,75 +31,105 @@ public class LogService {
         appender.start();
 
         rootLogger.addAppender(appender);
+        broadcaster.start();
         logger.info("MemoryAppender registered successfully");
     }
 
-    public record LogEntry(String timestamp, String level, String message, String thread) {
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        broadcaster.stop();
     }
 
-    public void addLog(String level, String message, String thread) {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"));
-        LogEntry entry = new LogEntry(timestamp, level, message, thread);
+    public record LogEntry(long seq, String timestamp, String level, String message, String thread) {
+    }
 
-        logBuffer.offerLast(entry);
+    private static final int DEFAULT_BUFFER_SIZE = 50000;
 
-        // Dynamic Trimming
-        int limit = 50000; // Default
-        try {
+    private static final String[] LEVELS = { "TRACE", "DEBUG", "INFO", "WARN", "ERROR" };
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    // Raw events only; timestamps and levels are formatted when read
+    private final LogRingBuffer logBuffer = new LogRingBuffer(DEFAULT_BUFFER_SIZE);
+
+    private volatile long lastCapacityCheck;
+
+    public void addLog(long timestamp, String level, String message, String thread) {
+        // Re-read LOG_BUFFER_SIZE at most once a second and resize only when it changed.
+        // (The config call itself is logged, so doing it per event would double the log volume.)
+        if (timestamp - lastCapacityCheck >= 1000) {
+            lastCapacityCheck = timestamp;
+            int limit = DEFAULT_BUFFER_SIZE;
             if (configurationService != null) {
-                String configVal = configurationService.getValue("LOG_BUFFER_SIZE");
-                if (configVal != null) {
-                    limit = Integer.parseInt(configVal);
-                }
+                limit = configurationService.getInt("LOG_BUFFER_SIZE", limit);
+            }
+            if (limit != logBuffer.capacity()) {
+                logBuffer.resize(limit);
             }
-        } catch (Exception e) {
-            // Fallback to default
         }
 
-        while (logBuffer.size() > limit) {
-            logBuffer.pollFirst();
-        }
+        int levelOrdinal = levelOrdinal(level);
+        long seq = logBuffer.append(timestamp, levelOrdinal, message, thread);
 
-        broadcast(entry);
+        if (broadcaster.hasSubscribers()) {
+            broadcaster.publish(toEntry(seq, timestamp, levelOrdinal, message, thread));
+        }
     }
 
     public List<LogEntry> getRecentLogs() {
-        return new ArrayList<>(logBuffer);
+        return logBuffer.snapshot(LogService::toEntry);
     }
 
     public void clearLogs() {
         logBuffer.clear();
-        broadcast(new LogEntry(LocalDateTime.now().toString(), "INFO", "--- LOGS CLEARED BY USER ---", "System"));
+        addLog(System.currentTimeMillis(), "INFO", "--- LOGS CLEARED BY USER ---", "System");
+    }
+
+    private static LogEntry toEntry(long seq, long timestamp, int level, String message, String thread) {
+        return new LogEntry(seq, TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(timestamp)), LEVELS[level], message,
+                thread);
+    }
+
+    private static int levelOrdinal(String level) {
+        switch (level) {
+            case "TRACE":
+                return 0;
+            case "DEBUG":
+                return 1;
+            case "WARN":
+                return 3;
+            case "ERROR":
+                return 4;
+            default:
+                return 2;
+        }
     }
 
-    public SseEmitter subscribe() {
+    // since: last sequence number the client already has (0 = send full history)
+    public SseEmitter subscribe(long since) {
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE); // Infinite timeout
 
         try {
-            // Send initial history
-            emitter.send(SseEmitter.event().name("history").data(getRecentLogs()));
-        } catch (IOException e) {
+            // Fresh clients get the whole buffer as "history"; a resuming client only
+            // gets what it missed, as a regular "log" batch to append.
+            if (since > 0) {
+                broadcaster.subscribe(emitter, since, this::getLogsSince, "log");
+            } else {
+                broadcaster.subscribe(emitter, 0, this::getLogsSince, "history");
+            }
+        } catch (Exception e) {
             emitter.complete();
             return null;
         }
-
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((e) -> emitters.remove(emitter));
-
-        emitters.add(emitter);
         return emitter;
     }
 
-    private void broadcast(LogEntry entry) {
-        List<SseEmitter> deadEmitters = new ArrayList<>();
-        emitters.forEach(emitter -> {
-            try {
-                emitter.send(SseEmitter.event().name("log").data(entry));
-            } catch (Exception e) {
-                deadEmitters.add(emitter);
-            }
-        });
-        emitters.removeAll(deadEmitters);
+    public List<LogEntry> getLogsSince(long since) {
+        return logBuffer.snapshotSince(since, LogService::toEntry);
+    }
+
+    public java.util.Map<String, Object> getBroadcastStats() {
+        return broadcaster.getStats();
     }
 }
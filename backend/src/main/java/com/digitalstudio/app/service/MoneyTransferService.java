@@ -1,10 +1,10 @@
 package com.digitalstudio.app.service;
 
+import com.digitalstudio.app.dto.CursorPage;
 import com.digitalstudio.app.model.MoneyTransfer;
 import com.digitalstudio.app.model.Customer;
 import com.digitalstudio.app.repository.MoneyTransferRepository;
 import com.digitalstudio.app.repository.CustomerRepository;
-import com.digitalstudio.app.repository.UploadRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -24,7 +24,7 @@ public class MoneyTransferService {
     private MoneyTransferRepository moneyTransferRepository;
 
     @Autowired
-    private UploadRepository uploadRepository;
+    private UploadEnrichmentService uploadEnrichmentService;
 
     @Autowired
     private CustomerRepository customerRepository;
@@ -32,9 +32,41 @@ public class MoneyTransferService {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private CustomerIndex customerIndex;
+
+    @Autowired
+    private CustomerResolver customerResolver;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CursorPaginationService cursorPaginationService;
+
     public Page<MoneyTransfer> getAllTransfers(LocalDate startDate, LocalDate endDate,
             String search, List<String> types, int page, int size) {
-        Specification<MoneyTransfer> spec = (root, query, cb) -> {
+        Page<MoneyTransfer> pageData = moneyTransferRepository.findAll(filter(startDate, endDate, search, types),
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        uploadEnrichmentService.enrichMoneyTransfers(pageData.getContent());
+
+        return pageData;
+    }
+
+    // Keyset variant of the listing above (see CursorPaginationService)
+    public CursorPage<MoneyTransfer> getTransfersAfter(LocalDate startDate, LocalDate endDate,
+            String search, List<String> types, String cursor, int size, boolean withTotal) {
+        String totalKey = withTotal ? "transfers|" + startDate + "|" + endDate + "|" + search + "|" + types : null;
+        CursorPage<MoneyTransfer> result = cursorPaginationService.fetch(moneyTransferRepository,
+                filter(startDate, endDate, search, types), "id", MoneyTransfer::getCreatedAt, MoneyTransfer::getId, cursor, size, totalKey);
+        uploadEnrichmentService.enrichMoneyTransfers(result.getContent());
+        return result;
+    }
+
+    private Specification<MoneyTransfer> filter(LocalDate startDate, LocalDate endDate, String search,
+            List<String> types) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (startDate != null) {
@@ -60,23 +92,6 @@ public class MoneyTransferService {
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
-
-        Page<MoneyTransfer> pageData = moneyTransferRepository.findAll(spec,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
-
-        for (MoneyTransfer mt : pageData.getContent()) {
-            if (mt.getUploadId() != null) {
-                String rawId = mt.getUploadId();
-                if (rawId.contains(".")) {
-                    rawId = rawId.substring(0, rawId.lastIndexOf('.'));
-                }
-                uploadRepository.findById(rawId).ifPresent(upload -> {
-                    mt.setIsFileAvailable(upload.getIsAvailable());
-                });
-            }
-        }
-
-        return pageData;
     }
 
     public MoneyTransfer createTransfer(MoneyTransfer transfer) {
@@ -85,22 +100,16 @@ public class MoneyTransferService {
         if (transfer.getCustomer() != null) {
             Customer payloadCustomer = transfer.getCustomer();
             if (payloadCustomer.getId() == null) {
-                if (payloadCustomer.getMobile() != null && !payloadCustomer.getMobile().isEmpty()) {
-                    Customer existing = customerRepository.findByMobile(payloadCustomer.getMobile()).orElse(null);
-                    if (existing != null) {
-                        transfer.setCustomer(existing);
-                    } else {
-                        Customer newCust = new Customer();
-                        newCust.setMobile(payloadCustomer.getMobile());
-                        newCust.setName(payloadCustomer.getName());
-                        newCust.setId(customerService.generateNewCustomerId());
-                        transfer.setCustomer(customerRepository.save(newCust));
-                    }
+                if (payloadCustomer.getMobile() != null && !payloadCustomer.getMobile().trim().isEmpty()) {
+                    transfer.setCustomer(customerResolver
+                            .resolve(payloadCustomer.getMobile(), payloadCustomer.getName(), null).customer());
                 }
             }
         }
 
-        return moneyTransferRepository.save(transfer);
+        MoneyTransfer saved = moneyTransferRepository.save(transfer);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public Optional<MoneyTransfer> getTransferById(UUID id) {
@@ -112,7 +121,9 @@ public class MoneyTransferService {
                 .orElseThrow(() -> new RuntimeException("Transfer not found with id: " + id));
 
         transfer.setStatus(status);
-        return moneyTransferRepository.save(transfer);
+        MoneyTransfer saved = moneyTransferRepository.save(transfer);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public MoneyTransfer updateTransfer(UUID id, Map<String, Object> updates) {
@@ -173,13 +184,16 @@ public class MoneyTransferService {
                     String newName = (String) custMap.get("name");
                     if (newName != null && !newName.isEmpty() && !newName.equals(cust.getName())) {
                         cust.setName(newName);
-                        customerRepository.save(cust);
+                        customerIndex.update(customerRepository.save(cust));
+                        searchIndexService.reindexCustomer(cust.getId());
                     }
                 }
             }
         }
 
-        return moneyTransferRepository.save(transfer);
+        MoneyTransfer saved = moneyTransferRepository.save(transfer);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public List<Map<String, Object>> getSuggestions(String mobile) {
@@ -16,10 +16,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.digitalstudio.app.dto.CursorPage;
 import com.digitalstudio.app.dto.PhotoOrderRequest;
 import com.digitalstudio.app.model.Payment;
 import com.digitalstudio.app.repository.PaymentRepository;
-import com.digitalstudio.app.repository.UploadRepository;
 import com.digitalstudio.app.repository.specification.OrderSpecification;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,6 +43,18 @@ public class OrderService {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private CustomerIndex customerIndex;
+
+    @Autowired
+    private CustomerResolver customerResolver;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CursorPaginationService cursorPaginationService;
+
     public PhotoOrder saveOrder(PhotoOrderRequest request) {
         // 0. Resolve Order (Edit vs New)
         PhotoOrder order = new PhotoOrder();
@@ -57,29 +69,28 @@ public class OrderService {
 
         // 1. Customer
         Customer customer = null;
+        boolean renamed = false;
         if (request.getCustomer() != null) {
             String mobile = request.getCustomer().getMobile();
             String name = request.getCustomer().getName();
             String reqId = request.getCustomer().getId();
 
             if (mobile != null && !mobile.trim().isEmpty()) {
-                Optional<Customer> existing = customerRepository.findByMobile(mobile);
-                if (existing.isPresent()) {
-                    customer = existing.get();
-                    if (name != null && !name.trim().equals(customer.getName())) {
-                        appendHistory(customer, "Modified", "Name updated: " + customer.getName() + " -> " + name);
-                        customer.setName(name);
-                    }
-                } else {
-                    customer = new Customer();
-                    customer.setMobile(mobile);
-                    customer.setName(name);
+                // New customers take the mobile as their ID when it is numeric
+                Long mobileId = null;
+                try {
+                    mobileId = Long.parseLong(mobile);
+                } catch (NumberFormatException e) {
+                    // Resolver generates one
+                }
+                CustomerResolver.Resolution resolved = customerResolver.resolve(mobile, name, mobileId);
+                customer = resolved.customer();
+                if (resolved.created()) {
                     appendHistory(customer, "Created", "Via New Photo Order");
-                    try {
-                        customer.setId(Long.parseLong(mobile));
-                    } catch (NumberFormatException e) {
-                        customer.setId(customerService.generateNewCustomerId());
-                    }
+                } else if (name != null && !name.trim().equals(customer.getName())) {
+                    appendHistory(customer, "Modified", "Name updated: " + customer.getName() + " -> " + name);
+                    customer.setName(name);
+                    renamed = true;
                 }
             } else {
                 // No valid mobile, check provided ID
@@ -124,6 +135,10 @@ public class OrderService {
                 }
             }
             customer = customerRepository.save(customer);
+            customerIndex.update(customer);
+            if (renamed) {
+                searchIndexService.reindexCustomer(customer.getId());
+            }
         }
 
         // 2. Payment
@@ -198,7 +213,9 @@ public class OrderService {
             }
         }
 
-        return photoOrderRepository.save(order);
+        PhotoOrder saved = photoOrderRepository.save(order);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     private void appendHistory(Customer customer, String action, String details) {
@@ -225,7 +242,7 @@ public class OrderService {
     }
 
     @Autowired
-    private UploadRepository uploadRepository;
+    private UploadEnrichmentService uploadEnrichmentService;
 
     public org.springframework.data.domain.Page<PhotoOrder> getAllOrders(LocalDate startDate, LocalDate endDate,
             String search, Boolean instant, Boolean regular, int page, int size) {
@@ -234,36 +251,25 @@ public class OrderService {
         org.springframework.data.domain.Page<PhotoOrder> orderPage = photoOrderRepository
                 .findAll(OrderSpecification.filterOrders(startDate, endDate, search, instant, regular), pageable);
 
-        // Dynamic Extension Fix & Original Filename Population
-        for (PhotoOrder order : orderPage.getContent()) {
-            String currentUploadId = order.getUploadId();
-            if (currentUploadId != null) {
-                // 1. Determine Raw ID (Strip extension if present for lookup)
-                String rawId = currentUploadId;
-                if (currentUploadId.contains(".")) {
-                    rawId = currentUploadId.substring(0, currentUploadId.lastIndexOf('.'));
-                }
-
-                // 2. Lookup Upload
-                String finalRawId = rawId; // effective final for lambda
-                uploadRepository.findById(finalRawId).ifPresent(upload -> {
-                    // Populate Original Filename
-                    order.setOriginalFilename(upload.getOriginalFilename());
-
-                    // Populate Availability
-                    order.setIsFileAvailable(upload.getIsAvailable());
-
-                    // Fix Extension if missing in Order but present in Upload
-                    if (!currentUploadId.contains(".") && upload.getExtension() != null) {
-                        order.setUploadId(currentUploadId + upload.getExtension());
-                    }
-                });
-            }
-        }
+        // Dynamic Extension Fix & Original Filename Population (one query per page)
+        uploadEnrichmentService.enrichPhotoOrders(orderPage.getContent());
 
         return orderPage;
     }
 
+    // Keyset variant of getAllOrders (see CursorPaginationService)
+    public CursorPage<PhotoOrder> getOrdersAfter(LocalDate startDate, LocalDate endDate, String search,
+            Boolean instant, Boolean regular, String cursor, int size, boolean withTotal) {
+        String totalKey = withTotal
+                ? "orders|" + startDate + "|" + endDate + "|" + search + "|" + instant + "|" + regular
+                : null;
+        CursorPage<PhotoOrder> result = cursorPaginationService.fetch(photoOrderRepository,
+                OrderSpecification.filterOrders(startDate, endDate, search, instant, regular), "orderId",
+                PhotoOrder::getCreatedAt, PhotoOrder::getOrderId, cursor, size, totalKey);
+        uploadEnrichmentService.enrichPhotoOrders(result.getContent());
+        return result;
+    }
+
     public List<String> getRecentFiles(String mobile) {
         return photoOrderRepository.findDistinctRecentUploads(mobile,
                 org.springframework.data.domain.PageRequest.of(0, 5));
@@ -327,7 +333,9 @@ public class OrderService {
         }
 
         order.setStatus(newStatus);
-        return photoOrderRepository.save(order);
+        PhotoOrder saved = photoOrderRepository.save(order);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public void bulkUpdateStatus(List<java.util.UUID> ids, String newStatus) {
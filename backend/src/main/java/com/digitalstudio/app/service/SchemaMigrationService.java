@@ -0,0 +1,184 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.SchemaVersion;
+import com.digitalstudio.app.repository.SchemaVersionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Versioned schema changes that ddl-auto=update can't express (indexes on
+// existing tables, constraints).
+//
+// Scripts live in classpath:db/migration as V<n>__<description>.sql and are
+// applied once, in version order, at startup. Each applied version is recorded
+// in schema_version with its checksum. This runs after Hibernate has updated the
+// tables (the repository dependency needs the EntityManagerFactory), so scripts
+// can rely on every entity table existing. CREATE INDEX / DROP INDEX statements
+// are skipped when they are already in effect, which keeps a half-applied script
+// re-runnable (the other statements should be written to be repeatable).
+// A failing script is not recorded and stops startup: code such as
+// CustomerResolver relies on the constraints the scripts add. Indexes are owned
+// by these scripts; entities don't declare @Table indexes.
+@Service
+public class SchemaMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrationService.class);
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_INDEX = Pattern.compile(
+            "DROP\\s+INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private SchemaVersionRepository schemaVersionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.schema.migrate:true}")
+    private boolean enabled;
+
+    private record Script(int version, String description, String name, String sql, long checksum) {
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        List<Script> scripts;
+        try {
+            scripts = loadScripts();
+        } catch (IOException e) {
+            throw new IllegalStateException("SCHEMA_MIGRATION_FAILED: could not read db/migration scripts", e);
+        }
+
+        Map<Integer, SchemaVersion> applied = new TreeMap<>();
+        for (SchemaVersion v : schemaVersionRepository.findAll()) {
+            applied.put(v.getVersion(), v);
+        }
+
+        for (Script script : scripts) {
+            SchemaVersion done = applied.get(script.version());
+            if (done != null) {
+                if (done.getChecksum() != script.checksum()) {
+                    logger.warn("Schema migration {} changed after it was applied (checksum {} -> {})",
+                            script.name(), done.getChecksum(), script.checksum());
+                }
+                continue;
+            }
+            apply(script);
+        }
+    }
+
+    private void apply(Script script) {
+        long start = System.currentTimeMillis();
+        try {
+            for (String statement : statements(script.sql())) {
+                Matcher m = CREATE_INDEX.matcher(statement);
+                if (m.find() && indexExists(m.group(2), m.group(1))) {
+                    logger.info("Index {} already exists, skipping", m.group(1));
+                    continue;
+                }
+                m = DROP_INDEX.matcher(statement);
+                if (m.find() && !indexExists(m.group(2), m.group(1))) {
+                    logger.info("Index {} does not exist, skipping", m.group(1));
+                    continue;
+                }
+                jdbcTemplate.execute(statement);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("SCHEMA_MIGRATION_FAILED: " + script.name(), e);
+        }
+
+        SchemaVersion v = new SchemaVersion();
+        v.setVersion(script.version());
+        v.setDescription(script.description());
+        v.setScript(script.name());
+        v.setChecksum(script.checksum());
+        v.setInstalledOn(LocalDateTime.now());
+        v.setExecutionMs(System.currentTimeMillis() - start);
+        schemaVersionRepository.save(v);
+        logger.info("Applied schema migration {} in {} ms", script.name(), v.getExecutionMs());
+    }
+
+    private List<Script> loadScripts() throws IOException {
+        List<Script> scripts = new ArrayList<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:db/migration/V*__*.sql");
+        for (Resource resource : resources) {
+            Matcher m = SCRIPT_NAME.matcher(resource.getFilename());
+            if (!m.matches()) {
+                logger.warn("Ignoring schema migration with an unexpected name: {}", resource.getFilename());
+                continue;
+            }
+            byte[] bytes;
+            try (InputStream in = resource.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            scripts.add(new Script(Integer.parseInt(m.group(1)), m.group(2).replace('_', ' '),
+                    resource.getFilename(), new String(bytes, StandardCharsets.UTF_8), crc.getValue()));
+        }
+        scripts.sort(Comparator.comparingInt(Script::version));
+        return scripts;
+    }
+
+    // ';'-separated statements with "--" comment lines removed
+    private static List<String> statements(String sql) {
+        StringBuilder body = new StringBuilder();
+        for (String line : sql.split("\\R")) {
+            if (!line.trim().startsWith("--")) {
+                body.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String s : body.toString().split(";")) {
+            if (!s.isBlank()) {
+                statements.add(s.trim());
+            }
+        }
+        return statements;
+    }
+
+    private boolean indexExists(String table, String index) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData meta = con.getMetaData();
+            // MySQL keeps the table name as written, H2 upper-cases unquoted names
+            for (String t : new String[] { table, table.toUpperCase() }) {
+                try (ResultSet rs = meta.getIndexInfo(con.getCatalog(), null, t, false, true)) {
+                    while (rs.next()) {
+                        if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
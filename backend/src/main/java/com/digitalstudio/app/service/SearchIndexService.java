@@ -0,0 +1,545 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.BillPaymentTransaction;
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.model.MoneyTransfer;
+import com.digitalstudio.app.model.PhotoOrder;
+import com.digitalstudio.app.model.ServiceOrder;
+import com.digitalstudio.app.model.SourceType;
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.BillPaymentRepository;
+import com.digitalstudio.app.repository.MoneyTransferRepository;
+import com.digitalstudio.app.repository.PhotoOrderRepository;
+import com.digitalstudio.app.repository.ServiceOrderRepository;
+import com.digitalstudio.app.repository.UploadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+// One inverted index over photo orders, bill payments, money transfers, service
+// orders and uploads, for the global search.
+//
+// Every record becomes a document of lower-cased tokens, each carrying the
+// weight of the field it came from (IDs and numbers > names > the rest). A
+// query word matches every token it prefixes, exact tokens scoring double, and
+// rarer tokens count for more; all words must match. Results come back as one
+// ranked, paginated stream, newest first among equal scores.
+//
+// Built from the DB at startup and kept current by the services' save paths, the
+// hard delete (remove) and customer renames (reindexCustomer), all applied after
+// commit; until built, search() reports ready=false.
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private static final int LOAD_PAGE_SIZE = 2000;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public enum Type {
+        ORDER, BILL, TRANSFER, SERVICE, UPLOAD
+    }
+
+    // Field weights; fields not listed weigh 1
+    private static final Map<String, Integer> WEIGHTS = Map.ofEntries(
+            Map.entry("id", 4), Map.entry("uploadId", 4), Map.entry("billId", 4), Map.entry("upiId", 4),
+            Map.entry("accountNumber", 4), Map.entry("mobileNumber", 4), Map.entry("customerId", 4),
+            Map.entry("customerMobile", 4),
+            Map.entry("customerName", 2), Map.entry("recipientName", 2), Map.entry("billCustomerName", 2),
+            Map.entry("originalFilename", 2), Map.entry("serviceName", 2), Map.entry("operator", 2),
+            Map.entry("bankName", 2));
+
+    // Stored for display, not indexed
+    private static final Set<String> UNINDEXED = Set.of("createdAt", "extension");
+
+    @Autowired
+    private PhotoOrderRepository photoOrderRepository;
+
+    @Autowired
+    private BillPaymentRepository billPaymentRepository;
+
+    @Autowired
+    private MoneyTransferRepository moneyTransferRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    private record Doc(Type type, String id, String title, String subtitle, String status,
+            LocalDateTime createdAt, Map<String, Integer> terms) {
+    }
+
+    private record Hit(Doc doc, double score) {
+    }
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing((Hit h) -> h.doc().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing((Hit h) -> h.doc().id());
+
+    // All guarded by 'lock'. Documents live in slots; postings map term -> slot -> weight.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Doc> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private final Set<String> savedDuringBuild = new HashSet<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        int total = 0;
+        UUID firstUuid = new UUID(0, 0);
+        total += load(Type.ORDER, firstUuid, photoOrderRepository::findSearchPage);
+        total += load(Type.BILL, firstUuid, billPaymentRepository::findSearchPage);
+        total += load(Type.TRANSFER, firstUuid, moneyTransferRepository::findSearchPage);
+        total += load(Type.SERVICE, firstUuid, serviceOrderRepository::findSearchPage);
+        total += load(Type.UPLOAD, "", uploadRepository::findSearchPage);
+        lock.writeLock().lock();
+        try {
+            ready = true;
+            savedDuringBuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index built: {} records, {} terms in {} ms", total, termCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private <K> int load(Type type, K first, BiFunction<K, Pageable, List<Map<String, Object>>> pager) {
+        int count = 0;
+        K after = first;
+        while (true) {
+            List<Map<String, Object>> page = pager.apply(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            if (page.isEmpty()) {
+                return count;
+            }
+            List<Doc> docs = new ArrayList<>(page.size());
+            for (Map<String, Object> row : page) {
+                docs.add(toDoc(type, row));
+            }
+            lock.writeLock().lock();
+            try {
+                for (Doc doc : docs) {
+                    // A save that committed while loading is newer than its loaded row
+                    if (!savedDuringBuild.contains(doc.type() + ":" + doc.id())) {
+                        putLocked(doc);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            count += page.size();
+            @SuppressWarnings("unchecked")
+            K last = (K) page.get(page.size() - 1).get("id");
+            after = last;
+        }
+    }
+
+    // --- Save paths: each call is applied once the surrounding transaction commits ---
+
+    public void index(PhotoOrder order) {
+        if (order == null || order.getOrderId() == null) {
+            return;
+        }
+        Map<String, Object> row = customerFields(order.getCustomer());
+        row.put("id", order.getOrderId());
+        row.put("createdAt", order.getCreatedAt());
+        row.put("status", order.getStatus());
+        row.put("uploadId", order.getUploadId());
+        row.put("description", order.getDescription());
+        apply(toDoc(Type.ORDER, row));
+    }
+
+    public void index(BillPaymentTransaction bill) {
+        if (bill == null || bill.getId() == null) {
+            return;
+        }
+        Map<String, Object> row = customerFields(bill.getCustomer());
+        row.put("id", bill.getId());
+        row.put("createdAt", bill.getCreatedAt());
+        row.put("status", bill.getStatus());
+        row.put("transactionType", bill.getTransactionType());
+        row.put("operator", bill.getOperator());
+        row.put("billId", bill.getBillId());
+        row.put("billCustomerName", bill.getBillCustomerName());
+        row.put("uploadId", bill.getUploadId());
+        apply(toDoc(Type.BILL, row));
+    }
+
+    public void index(MoneyTransfer transfer) {
+        if (transfer == null || transfer.getId() == null) {
+            return;
+        }
+        Map<String, Object> row = customerFields(transfer.getCustomer());
+        row.put("id", transfer.getId());
+        row.put("createdAt", transfer.getCreatedAt());
+        row.put("status", transfer.getStatus());
+        row.put("transferType", transfer.getTransferType());
+        row.put("recipientName", transfer.getRecipientName());
+        row.put("upiId", transfer.getUpiId());
+        row.put("accountNumber", transfer.getAccountNumber());
+        row.put("mobileNumber", transfer.getMobileNumber());
+        row.put("bankName", transfer.getBankName());
+        row.put("uploadId", transfer.getUploadId());
+        apply(toDoc(Type.TRANSFER, row));
+    }
+
+    public void index(ServiceOrder order) {
+        if (order == null || order.getId() == null) {
+            return;
+        }
+        Map<String, Object> row = customerFields(order.getCustomer());
+        row.put("id", order.getId());
+        row.put("createdAt", order.getCreatedAt());
+        row.put("status", order.getStatus());
+        row.put("serviceName", order.getServiceName());
+        row.put("description", order.getDescription());
+        apply(toDoc(Type.SERVICE, row));
+    }
+
+    public void index(Upload upload) {
+        if (upload == null || upload.getUploadId() == null) {
+            return;
+        }
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", upload.getUploadId());
+        // Unset on the instance passed to save(); the row was just created
+        row.put("createdAt", upload.getCreatedAt() != null ? upload.getCreatedAt() : LocalDateTime.now());
+        row.put("extension", upload.getExtension());
+        row.put("originalFilename", upload.getOriginalFilename());
+        row.put("uploadedFrom", upload.getUploadedFrom());
+        apply(toDoc(Type.UPLOAD, row));
+    }
+
+    // A record that is gone (e.g. a hard-deleted upload)
+    public void remove(Type type, String id) {
+        String key = type + ":" + id;
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (!ready) {
+                    savedDuringBuild.add(key);
+                }
+                removeLocked(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // A customer's name or mobile changed: every record showing that customer is
+    // re-read (call after saving the customer, so the lookup sees the change)
+    public void reindexCustomer(Long customerId) {
+        if (customerId == null) {
+            return;
+        }
+        List<Doc> docs = new ArrayList<>();
+        photoOrderRepository.findSearchRowsByCustomerId(customerId).forEach(row -> docs.add(toDoc(Type.ORDER, row)));
+        billPaymentRepository.findSearchRowsByCustomerId(customerId).forEach(row -> docs.add(toDoc(Type.BILL, row)));
+        moneyTransferRepository.findSearchRowsByCustomerId(customerId)
+                .forEach(row -> docs.add(toDoc(Type.TRANSFER, row)));
+        serviceOrderRepository.findSearchRowsByCustomerId(customerId)
+                .forEach(row -> docs.add(toDoc(Type.SERVICE, row)));
+        afterCommit(() -> docs.forEach(this::put));
+    }
+
+    // Drops every document of a type (e.g. after the dev data reset)
+    public void clear(Type type) {
+        lock.writeLock().lock();
+        try {
+            for (String key : new ArrayList<>(slotByKey.keySet())) {
+                if (key.startsWith(type.name() + ":")) {
+                    removeLocked(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Query ---
+
+    // page/size as in the listing endpoints; 'types' empty means all
+    public Map<String, Object> search(String query, Set<Type> types, int page, int size) {
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        page = Math.max(0, page);
+        int keep = (page + 1) * size;
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(BEST_FIRST.reversed());
+        int total = 0;
+        List<String> words = tokenize(query);
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = words.isEmpty() ? Map.of() : score(words);
+            for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                Doc doc = slots.get(e.getKey());
+                if (!types.isEmpty() && !types.contains(doc.type())) {
+                    continue;
+                }
+                total++;
+                top.add(new Hit(doc, e.getValue()));
+                if (top.size() > keep) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(BEST_FIRST);
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (int i = page * size; i < ranked.size(); i++) {
+            Doc doc = ranked.get(i).doc();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("type", doc.type());
+            item.put("id", doc.id());
+            item.put("title", doc.title());
+            item.put("subtitle", doc.subtitle());
+            item.put("status", doc.status());
+            item.put("createdAt", doc.createdAt());
+            item.put("score", Math.round(ranked.get(i).score() * 100) / 100.0);
+            content.add(item);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("content", content);
+        result.put("page", page);
+        result.put("size", size);
+        result.put("totalElements", total);
+        result.put("totalPages", (total + size - 1) / size);
+        result.put("ready", ready);
+        return result;
+    }
+
+    // Caller holds the read lock. Slot -> score for documents matching every word.
+    private Map<Integer, Double> score(List<String> words) {
+        double docCount = Math.max(1, slotByKey.size());
+        Map<Integer, Double> scores = null;
+        for (String word : words) {
+            Map<Integer, Double> wordScores = new HashMap<>();
+            for (Map.Entry<String, Map<Integer, Integer>> term : postings
+                    .subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                double idf = Math.log(1 + docCount / term.getValue().size());
+                double boost = term.getKey().equals(word) ? 2 : 1;
+                for (Map.Entry<Integer, Integer> posting : term.getValue().entrySet()) {
+                    wordScores.merge(posting.getKey(), posting.getValue() * boost * idf, Math::max);
+                }
+            }
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                Map<Integer, Double> both = new HashMap<>();
+                for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                    Double other = wordScores.get(e.getKey());
+                    if (other != null) {
+                        both.put(e.getKey(), e.getValue() + other);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    // --- Index maintenance ---
+
+    private void apply(Doc doc) {
+        afterCommit(() -> put(doc));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void put(Doc doc) {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                savedDuringBuild.add(doc.type() + ":" + doc.id());
+            }
+            putLocked(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(Doc doc) {
+        String key = doc.type() + ":" + doc.id();
+        removeLocked(key);
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = slots.size();
+            slots.add(doc);
+        } else {
+            slot = freeSlots.pop();
+            slots.set(slot, doc);
+        }
+        slotByKey.put(key, slot);
+        for (Map.Entry<String, Integer> term : doc.terms().entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(slot, term.getValue());
+        }
+    }
+
+    private void removeLocked(String key) {
+        Integer slot = slotByKey.remove(key);
+        if (slot == null) {
+            return;
+        }
+        Doc doc = slots.get(slot);
+        for (String term : doc.terms().keySet()) {
+            Map<Integer, Integer> posting = postings.get(term);
+            if (posting != null && posting.remove(slot) != null && posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        slots.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Documents ---
+
+    private static Map<String, Object> customerFields(Customer customer) {
+        Map<String, Object> row = new HashMap<>();
+        if (customer != null) {
+            row.put("customerId", customer.getId());
+            row.put("customerName", customer.getName());
+            row.put("customerMobile", customer.getMobile());
+        }
+        return row;
+    }
+
+    // Same field names for projection rows (startup) and entities (save paths)
+    private static Doc toDoc(Type type, Map<String, Object> row) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (Map.Entry<String, Object> field : row.entrySet()) {
+            if (field.getValue() == null || UNINDEXED.contains(field.getKey())) {
+                continue;
+            }
+            int weight = WEIGHTS.getOrDefault(field.getKey(), 1);
+            for (String token : tokenize(text(field.getValue()))) {
+                terms.merge(token, weight, Math::max);
+            }
+        }
+
+        String customer = text(row.get("customerName"));
+        String title;
+        String subtitle;
+        switch (type) {
+            case ORDER -> {
+                title = customer != null ? customer : "Photo order";
+                subtitle = join("Photo order", text(row.get("uploadId")), text(row.get("description")));
+            }
+            case BILL -> {
+                title = customer != null ? customer : text(row.get("billCustomerName"));
+                subtitle = join(text(row.get("transactionType")), text(row.get("operator")), text(row.get("billId")));
+            }
+            case TRANSFER -> {
+                title = customer != null ? customer : text(row.get("recipientName"));
+                String recipient = text(row.get("recipientName"));
+                subtitle = join(recipient != null ? "Transfer to " + recipient : "Transfer",
+                        text(row.get("upiId")) != null ? text(row.get("upiId")) : text(row.get("accountNumber")));
+            }
+            case SERVICE -> {
+                title = customer != null ? customer : text(row.get("serviceName"));
+                subtitle = join(text(row.get("serviceName")), text(row.get("description")));
+            }
+            default -> {
+                title = text(row.get("originalFilename"));
+                String id = text(row.get("id"));
+                subtitle = join(row.get("extension") != null ? id + row.get("extension") : id,
+                        text(row.get("uploadedFrom")));
+            }
+        }
+        String status = type == Type.UPLOAD ? null : text(row.get("status"));
+        return new Doc(type, text(row.get("id")), title, subtitle, status, (LocalDateTime) row.get("createdAt"),
+                terms);
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof SourceType source) {
+            return source.getDisplayName();
+        }
+        String s = value.toString();
+        return s.isBlank() ? null : s;
+    }
+
+    private static String join(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (part != null) {
+                if (sb.length() > 0) {
+                    sb.append(" - ");
+                }
+                sb.append(part);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text != null) {
+            for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+}
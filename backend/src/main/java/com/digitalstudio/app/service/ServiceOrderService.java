@@ -1,11 +1,10 @@
 package com.digitalstudio.app.service;
 
+import com.digitalstudio.app.dto.CursorPage;
 import com.digitalstudio.app.model.ServiceOrder;
 import com.digitalstudio.app.model.Customer;
 import com.digitalstudio.app.repository.ServiceOrderRepository;
 import com.digitalstudio.app.repository.CustomerRepository;
-import com.digitalstudio.app.repository.UploadRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -25,7 +24,7 @@ public class ServiceOrderService {
     private ServiceOrderRepository serviceOrderRepository;
 
     @Autowired
-    private UploadRepository uploadRepository;
+    private UploadEnrichmentService uploadEnrichmentService;
 
     @Autowired
     private CustomerRepository customerRepository;
@@ -34,11 +33,45 @@ public class ServiceOrderService {
     private CustomerService customerService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private CustomerIndex customerIndex;
+
+    @Autowired
+    private CustomerResolver customerResolver;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CursorPaginationService cursorPaginationService;
+
+    @Autowired
+    private ServiceOrderUploadService serviceOrderUploadService;
 
     public Page<ServiceOrder> getAllOrders(LocalDate startDate, LocalDate endDate,
             String search, List<String> services, int page, int size) {
-        Specification<ServiceOrder> spec = (root, query, cb) -> {
+        Page<ServiceOrder> pageData = serviceOrderRepository.findAll(filter(startDate, endDate, search, services),
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        uploadEnrichmentService.enrichServiceOrders(pageData.getContent());
+
+        return pageData;
+    }
+
+    // Keyset variant of the listing above (see CursorPaginationService)
+    public CursorPage<ServiceOrder> getOrdersAfter(LocalDate startDate, LocalDate endDate,
+            String search, List<String> services, String cursor, int size, boolean withTotal) {
+        String totalKey = withTotal
+                ? "service-orders|" + startDate + "|" + endDate + "|" + search + "|" + services
+                : null;
+        CursorPage<ServiceOrder> result = cursorPaginationService.fetch(serviceOrderRepository,
+                filter(startDate, endDate, search, services), "id", ServiceOrder::getCreatedAt, ServiceOrder::getId, cursor, size, totalKey);
+        uploadEnrichmentService.enrichServiceOrders(result.getContent());
+        return result;
+    }
+
+    private Specification<ServiceOrder> filter(LocalDate startDate, LocalDate endDate, String search,
+            List<String> services) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             if (startDate != null) {
@@ -63,34 +96,6 @@ public class ServiceOrderService {
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
-
-        Page<ServiceOrder> pageData = serviceOrderRepository.findAll(spec,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
-
-        for (ServiceOrder so : pageData.getContent()) {
-            if (so.getUploadIdsJson() != null && !so.getUploadIdsJson().isEmpty()) {
-                try {
-                    List<String> ids = objectMapper.readValue(so.getUploadIdsJson(),
-                            new com.fasterxml.jackson.core.type.TypeReference<List<String>>() {
-                            });
-
-                    Map<String, Boolean> availabilityMap = new HashMap<>();
-                    for (String id : ids) {
-                        String rawId = id;
-                        if (rawId.contains(".")) {
-                            rawId = rawId.substring(0, rawId.lastIndexOf('.'));
-                        }
-                        Optional<com.digitalstudio.app.model.Upload> upload = uploadRepository.findById(rawId);
-                        availabilityMap.put(id, upload.isPresent() && upload.get().getIsAvailable());
-                    }
-                    so.setIsFileAvailable(availabilityMap);
-                } catch (Exception e) {
-                    System.err.println("Error parsing upload IDs: " + e.getMessage());
-                }
-            }
-        }
-
-        return pageData;
     }
 
     public ServiceOrder createOrder(ServiceOrder order) {
@@ -105,24 +110,20 @@ public class ServiceOrderService {
                 finalCustomer = customerRepository.findById(payloadCustomer.getId()).orElse(null);
             }
 
-            // 2. If not found by ID, try mobile
+            // 2. If not found by ID, find or create by mobile (new customers keep the payload ID)
+            boolean created = false;
             if (finalCustomer == null && payloadCustomer.getMobile() != null
                     && !payloadCustomer.getMobile().trim().isEmpty()) {
-                // Use stream or list handling if duplicates exist to avoid crashes
-                // Since this caused a crash, let's just take the first one if multiple exist
-                // (unlikely for valid numbers, but safe)
-                // For now, sticking to finding specific unique ones, assuming real mobiles are
-                // unique.
-                // If the issue was purely empty strings, the condition above fixes it.
-                // If real numbers are duplicated, we should fix the repository or data.
-                // Let's rely on the empty check for now.
-                finalCustomer = customerRepository.findByMobile(payloadCustomer.getMobile()).orElse(null);
+                CustomerResolver.Resolution resolved = customerResolver.resolve(payloadCustomer.getMobile(),
+                        payloadCustomer.getName(), payloadCustomer.getId());
+                finalCustomer = resolved.customer();
+                created = resolved.created();
             }
 
-            // 3. If still null, create new
+            // 3. If still null (no mobile), create new
             if (finalCustomer == null) {
+                // Mobile stays null: blank values would collide on uk_customers_mobile
                 Customer newCust = new Customer();
-                newCust.setMobile(payloadCustomer.getMobile());
                 newCust.setName(payloadCustomer.getName());
                 // Generate ID if missing
                 if (payloadCustomer.getId() == null) {
@@ -131,18 +132,25 @@ public class ServiceOrderService {
                     newCust.setId(payloadCustomer.getId());
                 }
                 finalCustomer = customerRepository.save(newCust);
-            } else {
+                customerIndex.update(finalCustomer);
+            } else if (!created) {
                 // Optional: Update name if provided and different?
                 // For now, just ensure we use the managed entity.
-                if (payloadCustomer.getName() != null && !payloadCustomer.getName().isEmpty()) {
+                if (payloadCustomer.getName() != null && !payloadCustomer.getName().isEmpty()
+                        && !payloadCustomer.getName().equals(finalCustomer.getName())) {
                     finalCustomer.setName(payloadCustomer.getName()); // Update name if needed
                     finalCustomer = customerRepository.save(finalCustomer);
+                    customerIndex.update(finalCustomer);
+                    searchIndexService.reindexCustomer(finalCustomer.getId());
                 }
             }
             order.setCustomer(finalCustomer);
         }
 
-        return serviceOrderRepository.save(order);
+        ServiceOrder saved = serviceOrderRepository.save(order);
+        serviceOrderUploadService.sync(saved);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public ServiceOrder getOrderById(UUID id) {
@@ -154,7 +162,9 @@ public class ServiceOrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         order.setStatus(newStatus);
-        return serviceOrderRepository.save(order);
+        ServiceOrder saved = serviceOrderRepository.save(order);
+        searchIndexService.index(saved);
+        return saved;
     }
 
     public ServiceOrder updateOrder(UUID id, Map<String, Object> updates) {
@@ -206,12 +216,15 @@ public class ServiceOrderService {
                     String newName = (String) custMap.get("name");
                     if (newName != null && !newName.isEmpty() && !newName.equals(cust.getName())) {
                         cust.setName(newName);
-                        customerRepository.save(cust);
+                        customerIndex.update(customerRepository.save(cust));
+                        searchIndexService.reindexCustomer(cust.getId());
                     }
                 }
             }
         }
 
-        return serviceOrderRepository.save(order);
+        ServiceOrder saved = serviceOrderRepository.save(order);
+        searchIndexService.index(saved);
+        return saved;
     }
 }
@@ -0,0 +1,100 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.ServiceOrder;
+import com.digitalstudio.app.model.ServiceOrderUpload;
+import com.digitalstudio.app.repository.ServiceOrderRepository;
+import com.digitalstudio.app.repository.ServiceOrderUploadRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Keeps service_order_uploads in step with ServiceOrder.uploadIdsJson.
+//
+// Orders are synced after they are saved. Orders saved before the table existed
+// (or whose sync failed) have no rows and are picked up by the keyset backfill
+// at startup.
+@Service
+public class ServiceOrderUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceOrderUploadService.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private ServiceOrderUploadRepository serviceOrderUploadRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Replaces the order's rows with its current files
+    @Transactional
+    public void sync(ServiceOrder order) {
+        serviceOrderUploadRepository.deleteByServiceOrderId(order.getId());
+        serviceOrderUploadRepository.saveAll(links(order.getId(), order.getUploadIdsJson()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        UUID after = new UUID(0, 0);
+        int linked = 0;
+        while (true) {
+            List<Map<String, Object>> page = serviceOrderRepository.findUnlinkedPage(after,
+                    PageRequest.of(0, BATCH_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<ServiceOrderUpload> rows = new ArrayList<>();
+            for (Map<String, Object> order : page) {
+                rows.addAll(links((UUID) order.get("id"), (String) order.get("uploadIdsJson")));
+            }
+            serviceOrderUploadRepository.saveAll(rows);
+            linked += rows.size();
+            after = (UUID) page.get(page.size() - 1).get("id");
+        }
+        if (linked > 0) {
+            logger.info("Backfilled {} service order upload links", linked);
+        }
+    }
+
+    private List<ServiceOrderUpload> links(UUID serviceOrderId, String uploadIdsJson) {
+        List<ServiceOrderUpload> rows = new ArrayList<>();
+        if (uploadIdsJson == null || uploadIdsJson.isEmpty()) {
+            return rows;
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        try {
+            for (String id : objectMapper.readValue(uploadIdsJson, new TypeReference<List<String>>() {
+            })) {
+                if (id != null && !id.isEmpty()) {
+                    ids.add(UploadEnrichmentService.stripExtension(id));
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Unreadable upload IDs on service order {}: {}", serviceOrderId, e.getMessage());
+        }
+        for (String id : ids) {
+            ServiceOrderUpload row = new ServiceOrderUpload();
+            row.setServiceOrderId(serviceOrderId);
+            row.setUploadId(id);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
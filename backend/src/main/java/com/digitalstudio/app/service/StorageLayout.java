@@ -0,0 +1,46 @@
+package com.digitalstudio.app.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+
+// Where an upload's file lives under STORAGE_PATH, per STORAGE_LAYOUT:
+//   FLAT (default)  STORAGE_PATH/F251017001.jpg
+//   SHARDED         STORAGE_PATH/25/10/17/F251017001.jpg
+// The shard comes from the date embedded in the upload ID (FYYMMDDNNN), so a
+// path can always be derived from the ID alone. IDs not in that format stay flat.
+@Service
+public class StorageLayout {
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    public boolean isSharded() {
+        return "SHARDED".equalsIgnoreCase(configurationService.getValue("STORAGE_LAYOUT"));
+    }
+
+    public Path pathFor(Path root, String uploadId, String filename) {
+        return pathFor(root, uploadId, filename, isSharded());
+    }
+
+    public static Path pathFor(Path root, String uploadId, String filename, boolean sharded) {
+        if (!sharded || !hasDate(uploadId)) {
+            return root.resolve(filename);
+        }
+        return root.resolve(uploadId.substring(1, 3)).resolve(uploadId.substring(3, 5))
+                .resolve(uploadId.substring(5, 7)).resolve(filename);
+    }
+
+    private static boolean hasDate(String uploadId) {
+        if (uploadId == null || uploadId.length() < 8) {
+            return false;
+        }
+        for (int i = 1; i < 7; i++) {
+            if (!Character.isDigit(uploadId.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,216 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.repository.UploadRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Moves existing upload files to the configured STORAGE_LAYOUT in the background.
+//
+// Works in keyset batches. Each file is first hard-linked (or copied) to its new
+// path, the batch's uploadPath changes are committed in one transaction, and only
+// then are the old names removed. Either path is valid at every point, so files
+// keep being served while the migration runs. Deduplicated blobs are not moved.
+// Started from the API, and automatically when STORAGE_LAYOUT changes.
+@Service
+public class StorageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageMigrationService.class);
+
+    private static final int BATCH_SIZE = 200;
+    private static final long BATCH_PAUSE_MS = 50; // Leave disk time for uploads and serving
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile Thread worker;
+    private volatile boolean lastLayout;
+
+    // Progress of the running (or last) migration
+    private volatile boolean sharded;
+    private final AtomicInteger scanned = new AtomicInteger();
+    private final AtomicInteger moved = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    private record Move(String uploadId, Path from, Path to) {
+    }
+
+    @PostConstruct
+    public void init() {
+        lastLayout = storageLayout.isSharded();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    @EventListener
+    public void onValuesChanged(ConfigurationService.ValuesChangedEvent event) {
+        boolean layout = storageLayout.isSharded();
+        boolean previous = lastLayout;
+        lastLayout = layout;
+        if (previous != layout) {
+            start();
+        }
+    }
+
+    // No-op while a migration is already running
+    public synchronized void start() {
+        if (worker != null && worker.isAlive()) {
+            return;
+        }
+        lastLayout = storageLayout.isSharded();
+        worker = new Thread(this::run, "storage-migration");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    public Map<String, Object> getStatus() {
+        Thread t = worker;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", t != null && t.isAlive());
+        status.put("layout", sharded ? "SHARDED" : "FLAT");
+        status.put("scanned", scanned.get());
+        status.put("moved", moved.get());
+        status.put("failed", failed.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+
+    private void run() {
+        sharded = storageLayout.isSharded();
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        scanned.set(0);
+        moved.set(0);
+        failed.set(0);
+        try {
+            Path root = configurationService.getPath("STORAGE_PATH");
+            if (root == null) {
+                logger.warn("Storage migration skipped: STORAGE_PATH not configured");
+                return;
+            }
+            String after = "";
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Map<String, Object>> page = uploadRepository.findAvailabilityPage(after, false,
+                        PageRequest.of(0, BATCH_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                after = (String) page.get(page.size() - 1).get("uploadId");
+                migrateBatch(root, page);
+                Thread.sleep(BATCH_PAUSE_MS);
+            }
+            logger.info("Storage migration to {} done: {} scanned, {} moved, {} failed",
+                    sharded ? "SHARDED" : "FLAT", scanned.get(), moved.get(), failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Storage migration failed", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void migrateBatch(Path root, List<Map<String, Object>> page) {
+        // 1. Give each file its new name next to the old one
+        List<Move> linked = new ArrayList<>();
+        for (Map<String, Object> row : page) {
+            scanned.incrementAndGet();
+            String uploadId = (String) row.get("uploadId");
+            String uploadPath = (String) row.get("uploadPath");
+            if (uploadPath == null || row.get("fileHash") != null) {
+                continue; // Nothing on disk, or a shared blob with its own layout
+            }
+            Path from = Paths.get(uploadPath);
+            Path to = StorageLayout.pathFor(root, uploadId, from.getFileName().toString(), sharded);
+            if (to.equals(from) || !Files.exists(from)) {
+                continue;
+            }
+            try {
+                Files.createDirectories(to.getParent());
+                try {
+                    Files.createLink(to, from);
+                } catch (FileAlreadyExistsException e) {
+                    // Left by an interrupted run; replace it with the current content
+                    Files.delete(to);
+                    Files.createLink(to, from);
+                } catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(from, to, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                }
+                linked.add(new Move(uploadId, from, to));
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                logger.warn("Could not move {} to {}: {}", from, to, e.getMessage());
+            }
+        }
+        if (linked.isEmpty()) {
+            return;
+        }
+
+        // 2. Switch the paths in one transaction; rows changed meanwhile are left alone
+        List<Move> committed = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Move> done = new ArrayList<>();
+            for (Move move : linked) {
+                if (uploadRepository.updateUploadPath(move.uploadId(), move.from().toString(),
+                        move.to().toString()) > 0) {
+                    done.add(move);
+                }
+            }
+            return done;
+        });
+
+        // 3. Drop whichever name is no longer referenced
+        for (Move move : linked) {
+            boolean done = committed != null && committed.contains(move);
+            fileServingService.evict(move.uploadId());
+            try {
+                Files.deleteIfExists(done ? move.from() : move.to());
+                if (done) {
+                    moved.incrementAndGet();
+                }
+            } catch (IOException e) {
+                logger.warn("Could not remove {}: {}", done ? move.from() : move.to(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.digitalstudio.app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Watches STORAGE_PATH (recursively) so files deleted or restored outside the app
+// flip Upload.isAvailable within seconds, without a full availability scan.
+//
+// Stored files are named <uploadId><ext>, so an event's file name maps to an
+// upload ID by cutting at the first dot. Deduplicated files live under .blobs and
+// are named by content hash; those events map to every upload with that
+// fileHash. Events are collected for DEBOUNCE_MS and then re-checked against the
+// DB path in one batch. If the OS drops events (OVERFLOW) a regular scan runs
+// instead.
+@Service
+public class StorageWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageWatcher.class);
+
+    private static final long DEBOUNCE_MS = 2000;
+    private static final long ROOT_CHECK_MS = 30_000;
+
+    @Autowired
+    private AvailabilityScanner availabilityScanner;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Value("${app.storage.watch-enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Only touched by the worker thread
+    private WatchService watchService;
+    private Path root;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final Set<String> pending = new HashSet<>();
+    private final Set<String> pendingHashes = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "storage-watcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        long lastRootCheck = 0;
+        long firstPending = 0;
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                // STORAGE_PATH may be configured (or changed) after startup
+                if (now - lastRootCheck >= ROOT_CHECK_MS) {
+                    lastRootCheck = now;
+                    syncRoot();
+                }
+                if (watchService == null) {
+                    Thread.sleep(DEBOUNCE_MS);
+                    continue;
+                }
+
+                WatchKey key = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    if (pending.isEmpty() && pendingHashes.isEmpty()) {
+                        firstPending = System.currentTimeMillis();
+                    }
+                    handle(key);
+                }
+                if ((!pending.isEmpty() || !pendingHashes.isEmpty())
+                        && System.currentTimeMillis() - firstPending >= DEBOUNCE_MS) {
+                    flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Never let the watcher die; DB or config may be temporarily unavailable
+                logger.warn("Storage watcher error: {}", e.getMessage());
+            }
+        }
+        closeWatch();
+    }
+
+    private void handle(WatchKey key) throws IOException {
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                logger.info("Storage watcher overflow, running availability scan");
+                pending.clear();
+                pendingHashes.clear();
+                availabilityScanner.scan(false);
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            String name = child.getFileName().toString();
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                if (watched(child)) {
+                    registerTree(child);
+                }
+                continue;
+            }
+            if (child.startsWith(root.resolve(BlobStorageService.BLOB_DIR))) {
+                pendingHashes.add(name); // Blob files are named by their hash
+                continue;
+            }
+            if (name.startsWith(".") || name.endsWith(".part")) {
+                continue; // Hidden cache dirs and in-flight uploads
+            }
+            int dot = name.indexOf('.');
+            pending.add(dot > 0 ? name.substring(0, dot) : name);
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+    }
+
+    private void flush() {
+        Set<String> ids = new HashSet<>(pending);
+        Set<String> hashes = new HashSet<>(pendingHashes);
+        pending.clear();
+        pendingHashes.clear();
+        int updated = availabilityScanner.checkUploads(ids) + availabilityScanner.checkBlobs(hashes);
+        if (updated > 0) {
+            logger.info("Storage watcher updated availability of {} upload(s)", updated);
+        }
+    }
+
+    private void syncRoot() throws IOException {
+        Path configured = configurationService.getPath("STORAGE_PATH");
+        if (configured != null && !Files.isDirectory(configured)) {
+            configured = null;
+        }
+        if (configured == null ? root == null : configured.equals(root)) {
+            return;
+        }
+        closeWatch();
+        if (configured != null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            root = configured;
+            registerTree(root);
+            logger.info("Watching {} ({} directories)", root, keys.size());
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(start) && !watched(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    // Hidden directories (thumbnail cache etc.) are skipped, except the blob store;
+    // its staging area only holds files that aren't referenced yet
+    private boolean watched(Path dir) {
+        Path blobs = root.resolve(BlobStorageService.BLOB_DIR);
+        if (dir.startsWith(blobs)) {
+            return !dir.startsWith(blobs.resolve(BlobStorageService.INCOMING_DIR));
+        }
+        return !dir.getFileName().toString().startsWith(".");
+    }
+
+    private void closeWatch() {
+        keys.clear();
+        pending.clear();
+        pendingHashes.clear();
+        root = null;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            watchService = null;
+        }
+    }
+}
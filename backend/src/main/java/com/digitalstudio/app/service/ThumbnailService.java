@@ -0,0 +1,314 @@
+package com.digitalstudio.app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Downscaled previews for the listing grids, generated with plain ImageIO.
+//
+// Thumbnails are stored as STORAGE_PATH/.thumbs/<uploadId>_<width>.<jpg|png> and
+// kept in an in-memory LRU bounded by THUMBNAIL_CACHE_MB. Widths are snapped to a
+// few fixed sizes so the cache isn't fragmented by arbitrary ?w= values. Large
+// sources are decoded with subsampling, so a 20 MP photo never becomes a full
+// size raster on the heap.
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final int[] WIDTHS = { 64, 128, 256, 512 };
+    public static final int DEFAULT_WIDTH = 128;
+    private static final int DEFAULT_CACHE_MB = 32;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    @Autowired
+    private ConfigurationService configurationService;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    public record Thumbnail(byte[] data, MediaType mediaType, String etag) {
+    }
+
+    // Access-ordered; guarded by 'this'
+    private final LinkedHashMap<String, Thumbnail> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+
+    private final Map<String, CompletableFuture<Thumbnail>> inFlight = new ConcurrentHashMap<>();
+
+    // One background worker; when it falls behind, thumbnails are made on first view instead
+    private final ThreadPoolExecutor background = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(500), r -> {
+                Thread t = new Thread(r, "thumbnail-worker");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        background.shutdownNow();
+    }
+
+    public static int snapWidth(int requested) {
+        for (int width : WIDTHS) {
+            if (requested <= width) {
+                return width;
+            }
+        }
+        return WIDTHS[WIDTHS.length - 1];
+    }
+
+    // Returns null when the upload is missing or isn't a decodable image (gzipped files included)
+    public Thumbnail getThumbnail(String uploadId, int requestedWidth) {
+        FileServingService.ServedFile source = fileServingService.resolve(uploadId);
+        if (source == null || !"image".equals(source.mediaType().getType()) || source.isGzipped()) {
+            return null;
+        }
+        int width = snapWidth(requestedWidth);
+        String key = uploadId + "_" + width;
+        String etag = "\"t" + width + "-" + Long.toHexString(source.size()) + "-"
+                + Long.toHexString(source.lastModified()) + "\"";
+
+        Thumbnail cached;
+        synchronized (this) {
+            cached = cache.get(key);
+        }
+        if (cached != null && cached.etag().equals(etag)) {
+            return cached;
+        }
+
+        // Only one thread builds a given thumbnail; others wait for its result
+        CompletableFuture<Thumbnail> mine = new CompletableFuture<>();
+        CompletableFuture<Thumbnail> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            Thumbnail thumbnail = loadOrCreate(key, source, width, etag);
+            mine.complete(thumbnail);
+            return thumbnail;
+        } catch (RuntimeException e) {
+            mine.complete(null);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    // Called right after an upload is stored so the first listing view is served from disk
+    public void generateInBackground(String uploadId) {
+        background.execute(() -> {
+            try {
+                getThumbnail(uploadId, DEFAULT_WIDTH);
+            } catch (RuntimeException e) {
+                logger.warn("Background thumbnail for {} failed: {}", uploadId, e.getMessage());
+            }
+        });
+    }
+
+    // Drops every size of this upload's thumbnail from memory and disk
+    public void evict(String uploadId) {
+        String prefix = uploadId + "_";
+        synchronized (this) {
+            Iterator<Map.Entry<String, Thumbnail>> it = cache.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Thumbnail> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    cachedBytes -= entry.getValue().data().length;
+                    it.remove();
+                }
+            }
+        }
+
+        Path dir = thumbDir();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path thumb : stream) {
+                Files.deleteIfExists(thumb);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove thumbnails for {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    private Thumbnail loadOrCreate(String key, FileServingService.ServedFile source, int width, String etag) {
+        boolean png = isPng(source.mediaType());
+        MediaType type = png ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
+        Path dir = thumbDir();
+        Path file = dir != null ? dir.resolve(key + (png ? ".png" : ".jpg")) : null;
+
+        try {
+            byte[] data = null;
+            // Disk copy is valid if written after the source was last modified
+            if (file != null) {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attrs.lastModifiedTime().toMillis() >= source.lastModified()) {
+                        data = Files.readAllBytes(file);
+                    }
+                } catch (IOException e) {
+                    // Not generated yet
+                }
+            }
+
+            if (data == null) {
+                data = render(source.path(), width, png);
+                if (data == null) {
+                    return null;
+                }
+                if (file != null) {
+                    fileStorageService.store(new ByteArrayInputStream(data), file);
+                }
+            }
+
+            Thumbnail thumbnail = new Thumbnail(data, type, etag);
+            put(key, thumbnail);
+            return thumbnail;
+        } catch (IOException | RuntimeException e) {
+            // Corrupt or unsupported image: callers fall back to the original
+            logger.warn("Thumbnail for {} failed: {}", key, e.toString());
+            return null;
+        }
+    }
+
+    private synchronized void put(String key, Thumbnail thumbnail) {
+        Thumbnail previous = cache.put(key, thumbnail);
+        cachedBytes += thumbnail.data().length - (previous != null ? previous.data().length : 0);
+
+        long budget = cacheBudget();
+        Iterator<Map.Entry<String, Thumbnail>> it = cache.entrySet().iterator();
+        while (cachedBytes > budget && it.hasNext()) {
+            cachedBytes -= it.next().getValue().data().length;
+            it.remove();
+        }
+    }
+
+    private long cacheBudget() {
+        return configurationService.getInt("THUMBNAIL_CACHE_MB", DEFAULT_CACHE_MB) * 1024L * 1024L;
+    }
+
+    private Path thumbDir() {
+        Path storage = configurationService.getPath("STORAGE_PATH");
+        return storage != null ? storage.resolve(".thumbs") : null;
+    }
+
+    private static boolean isPng(MediaType type) {
+        // Keep transparency for formats that may have it
+        return "png".equals(type.getSubtype()) || "gif".equals(type.getSubtype());
+    }
+
+    private static byte[] render(Path source, int width, boolean png) throws IOException {
+        BufferedImage image = readSubsampled(source, width);
+        if (image == null) {
+            return null;
+        }
+
+        int targetWidth = Math.min(width, image.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * (double) targetWidth / image.getWidth()));
+
+        // Halve in steps first: a single bilinear pass from a large image aliases badly
+        while (image.getWidth() / 2 >= targetWidth) {
+            image = scale(image, image.getWidth() / 2, Math.max(1, image.getHeight() / 2), png);
+        }
+        image = scale(image, targetWidth, targetHeight, png);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        if (png) {
+            ImageIO.write(image, "png", out);
+        } else {
+            writeJpeg(image, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage readSubsampled(Path source, int width) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Decode at no less than twice the target width, then scale properly
+                int factor = Math.max(1, reader.getWidth(0) / (width * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            if (!alpha) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, ByteArrayOutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.BillPaymentTransaction;
+import com.digitalstudio.app.model.MoneyTransfer;
+import com.digitalstudio.app.model.PhotoOrder;
+import com.digitalstudio.app.model.ServiceOrder;
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.BillPaymentRepository;
+import com.digitalstudio.app.repository.MoneyTransferRepository;
+import com.digitalstudio.app.repository.PhotoOrderRepository;
+import com.digitalstudio.app.repository.ServiceOrderRepository;
+import com.digitalstudio.app.repository.UploadRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Fills the transient upload fields (availability, original filename) of a
+// listing page with a single IN query instead of one lookup per row.
+@Service
+public class UploadEnrichmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadEnrichmentService.class);
+
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PhotoOrderRepository photoOrderRepository;
+
+    @Autowired
+    private BillPaymentRepository billPaymentRepository;
+
+    @Autowired
+    private MoneyTransferRepository moneyTransferRepository;
+
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+
+    public void enrichPhotoOrders(List<PhotoOrder> orders) {
+        Map<String, Upload> uploads = loadUploads(orders, PhotoOrder::getUploadId);
+
+        for (PhotoOrder order : orders) {
+            String currentUploadId = order.getUploadId();
+            if (currentUploadId == null) {
+                continue;
+            }
+            Upload upload = uploads.get(stripExtension(currentUploadId));
+            if (upload != null) {
+                // Populate Original Filename
+                order.setOriginalFilename(upload.getOriginalFilename());
+
+                // Populate Availability
+                order.setIsFileAvailable(upload.getIsAvailable());
+
+                // Fix Extension if missing in Order but present in Upload
+                if (!currentUploadId.contains(".") && upload.getExtension() != null) {
+                    order.setUploadId(currentUploadId + upload.getExtension());
+                }
+            }
+        }
+    }
+
+    public void enrichBillPayments(List<BillPaymentTransaction> transactions) {
+        Map<String, Upload> uploads = loadUploads(transactions, BillPaymentTransaction::getUploadId);
+
+        for (BillPaymentTransaction txn : transactions) {
+            if (txn.getUploadId() != null) {
+                Upload upload = uploads.get(stripExtension(txn.getUploadId()));
+                if (upload != null) {
+                    txn.setIsFileAvailable(upload.getIsAvailable());
+                }
+            }
+        }
+    }
+
+    public void enrichMoneyTransfers(List<MoneyTransfer> transfers) {
+        Map<String, Upload> uploads = loadUploads(transfers, MoneyTransfer::getUploadId);
+
+        for (MoneyTransfer mt : transfers) {
+            if (mt.getUploadId() != null) {
+                Upload upload = uploads.get(stripExtension(mt.getUploadId()));
+                if (upload != null) {
+                    mt.setIsFileAvailable(upload.getIsAvailable());
+                }
+            }
+        }
+    }
+
+    public void enrichServiceOrders(List<ServiceOrder> orders) {
+        // Parse every order's JSON first so the whole page shares one lookup
+        Map<ServiceOrder, List<String>> idsByOrder = new IdentityHashMap<>();
+        Set<String> rawIds = new HashSet<>();
+        for (ServiceOrder so : orders) {
+            if (so.getUploadIdsJson() != null && !so.getUploadIdsJson().isEmpty()) {
+                try {
+                    List<String> ids = objectMapper.readValue(so.getUploadIdsJson(),
+                            new TypeReference<List<String>>() {
+                            });
+                    idsByOrder.put(so, ids);
+                    for (String id : ids) {
+                        rawIds.add(stripExtension(id));
+                    }
+                } catch (Exception e) {
+                    logger.warn("Error parsing upload IDs on service order {}: {}", so.getId(), e.getMessage());
+                }
+            }
+        }
+
+        Map<String, Upload> uploads = findByRawIds(rawIds);
+
+        for (Map.Entry<ServiceOrder, List<String>> entry : idsByOrder.entrySet()) {
+            Map<String, Boolean> availabilityMap = new HashMap<>();
+            for (String id : entry.getValue()) {
+                Upload upload = uploads.get(stripExtension(id));
+                availabilityMap.put(id, upload != null && Boolean.TRUE.equals(upload.getIsAvailable()));
+            }
+            entry.getKey().setIsFileAvailable(availabilityMap);
+        }
+    }
+
+    // Fills Upload.customerIds for one page of uploads. Every lookup is limited to
+    // the IDs on the page, so the cost doesn't grow with order history.
+    public void linkCustomers(List<Upload> uploads) {
+        if (uploads.isEmpty()) {
+            return;
+        }
+
+        // Orders may reference "F251230005" or "F251230005.jpg"
+        Set<String> candidates = new HashSet<>();
+        for (Upload upload : uploads) {
+            candidates.add(upload.getUploadId());
+            if (upload.getExtension() != null) {
+                candidates.add(upload.getUploadId() + upload.getExtension());
+            }
+        }
+
+        // Map UploadID -> Customer IDs
+        Map<String, Set<String>> uploadCustomerMap = new HashMap<>();
+        List<Map<String, Object>> links = new ArrayList<>();
+        links.addAll(photoOrderRepository.findCustomerLinksByUploadIdIn(candidates));
+        links.addAll(billPaymentRepository.findCustomerLinksByUploadIdIn(candidates));
+        links.addAll(moneyTransferRepository.findCustomerLinksByUploadIdIn(candidates));
+        for (Map<String, Object> link : links) {
+            addLink(uploadCustomerMap, (String) link.get("uploadId"), link.get("customerId"));
+        }
+        linkServiceOrders(uploads, uploadCustomerMap);
+
+        // Populate transient field
+        for (Upload upload : uploads) {
+            Set<String> ids = new LinkedHashSet<>(
+                    uploadCustomerMap.getOrDefault(upload.getUploadId(), Set.of()));
+            if (upload.getLinkedCustomer() != null) {
+                ids.add(String.valueOf(upload.getLinkedCustomer().getId()));
+            }
+            upload.setCustomerIds(new ArrayList<>(ids));
+        }
+    }
+
+    // Service orders keep their files in a JSON array column; service_order_uploads
+    // holds the same IDs one per row (without extension) so they can be matched by index.
+    private void linkServiceOrders(List<Upload> uploads, Map<String, Set<String>> uploadCustomerMap) {
+        Set<String> pageIds = new HashSet<>();
+        uploads.forEach(u -> pageIds.add(u.getUploadId()));
+        for (Map<String, Object> link : serviceOrderRepository.findCustomerLinksByUploadIdIn(pageIds)) {
+            addLink(uploadCustomerMap, (String) link.get("uploadId"), link.get("customerId"));
+        }
+    }
+
+    private void addLink(Map<String, Set<String>> uploadCustomerMap, String uploadId, Object customerId) {
+        if (uploadId != null && customerId != null) {
+            uploadCustomerMap.computeIfAbsent(stripExtension(uploadId), k -> new LinkedHashSet<>())
+                    .add(String.valueOf(customerId));
+        }
+    }
+
+    private <T> Map<String, Upload> loadUploads(List<T> rows, Function<T, String> uploadIdGetter) {
+        Set<String> rawIds = new HashSet<>();
+        for (T row : rows) {
+            String uploadId = uploadIdGetter.apply(row);
+            if (uploadId != null) {
+                rawIds.add(stripExtension(uploadId));
+            }
+        }
+        return findByRawIds(rawIds);
+    }
+
+    private Map<String, Upload> findByRawIds(Collection<String> rawIds) {
+        Map<String, Upload> result = new HashMap<>();
+        if (rawIds.isEmpty()) {
+            return result;
+        }
+        for (Upload upload : uploadRepository.findAllByUploadIdIn(rawIds)) {
+            result.put(upload.getUploadId(), upload);
+        }
+        return result;
+    }
+
+    // Orders store "F251230005.jpg" while uploads are keyed by "F251230005"
+    public static String stripExtension(String uploadId) {
+        int dot = uploadId.lastIndexOf('.');
+        return dot != -1 ? uploadId.substring(0, dot) : uploadId;
+    }
+}
@@ -0,0 +1,95 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.repository.UploadRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class UploadIdAllocator {
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyMMdd");
+
+    private final UploadRepository uploadRepository;
+
+    // Counter for the current day. Seeded from the DB once, then purely in-memory.
+    private final AtomicReference<DayCounter> current = new AtomicReference<>();
+
+    private record DayCounter(String prefix, AtomicInteger sequence) {
+    }
+
+    public UploadIdAllocator(UploadRepository uploadRepository) {
+        this.uploadRepository = uploadRepository;
+    }
+
+    // Format: FYYMMDDNNN. After 999 the sequence simply widens (F2510171000),
+    // which stays unique and still sorts after the 3-digit IDs by (length, value).
+    public String nextId() {
+        return reserve(1).get(0);
+    }
+
+    public List<String> reserve(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        DayCounter counter = counterFor(todayPrefix());
+        int last = counter.sequence().addAndGet(count);
+
+        List<String> ids = new ArrayList<>(count);
+        for (int seq = last - count + 1; seq <= last; seq++) {
+            ids.add(format(counter.prefix(), seq));
+        }
+        return ids;
+    }
+
+    // Called after a duplicate key: another writer (e.g. a second instance or a
+    // manual insert) got ahead of us, so catch up with the DB.
+    public void resync() {
+        DayCounter counter = counterFor(todayPrefix());
+        int dbMax = findMaxSequence(counter.prefix());
+        counter.sequence().accumulateAndGet(dbMax, Math::max);
+    }
+
+    private DayCounter counterFor(String prefix) {
+        DayCounter counter = current.get();
+        if (counter != null && counter.prefix().equals(prefix)) {
+            return counter;
+        }
+        synchronized (this) {
+            counter = current.get();
+            if (counter == null || !counter.prefix().equals(prefix)) {
+                counter = new DayCounter(prefix, new AtomicInteger(findMaxSequence(prefix)));
+                current.set(counter);
+            }
+            return counter;
+        }
+    }
+
+    private int findMaxSequence(String prefix) {
+        List<String> maxIds = uploadRepository.findUploadIdsByPrefixOrderBySequenceDesc(prefix,
+                PageRequest.of(0, 1));
+        if (maxIds.isEmpty()) {
+            return 0;
+        }
+        String seqStr = maxIds.get(0).substring(prefix.length());
+        try {
+            return Integer.parseInt(seqStr);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String todayPrefix() {
+        return "F" + LocalDate.now().format(DAY_FORMAT);
+    }
+
+    private static String format(String prefix, int seq) {
+        return seq < 1000 ? prefix + String.format("%03d", seq) : prefix + seq;
+    }
+}
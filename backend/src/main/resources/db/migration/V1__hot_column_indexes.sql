@@ -0,0 +1,16 @@
+-- Listings filter on a created_at range and sort newest first; id keeps the
+-- keyset (cursor) order unique
+CREATE INDEX idx_photo_orders_created_at ON photo_orders (created_at, order_id);
+CREATE INDEX idx_bill_payments_created_at ON bill_payment_transactions (created_at, id);
+CREATE INDEX idx_money_transfers_created_at ON money_transfers (created_at, id);
+CREATE INDEX idx_service_orders_created_at ON service_orders (created_at, id);
+CREATE INDEX idx_customers_created_at ON customers (created_at, customer_id);
+CREATE INDEX idx_uploads_created_at ON uploads (created_at, upload_id);
+
+-- findByMobile on every order / bill / transfer create
+CREATE INDEX idx_customers_mobile ON customers (mobile);
+
+-- unlinkUpload and the upload -> customer link lookups
+CREATE INDEX idx_photo_orders_upload_id ON photo_orders (upload_id);
+CREATE INDEX idx_bill_payments_upload_id ON bill_payment_transactions (upload_id);
+CREATE INDEX idx_money_transfers_upload_id ON money_transfers (upload_id);
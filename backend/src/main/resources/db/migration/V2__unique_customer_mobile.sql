@@ -0,0 +1,36 @@
+-- One customer per mobile, so CustomerResolver can insert-or-get atomically.
+-- Blank mobiles become NULL (the unique index allows any number of NULLs).
+-- Customers sharing a mobile are merged into the lowest customer_id: their
+-- orders, bills, transfers, service orders and linked uploads are repointed
+-- first, then the duplicates are removed.
+UPDATE customers SET mobile = NULL WHERE TRIM(mobile) = '';
+
+UPDATE photo_orders SET customer_id = (SELECT MIN(k.customer_id) FROM customers c
+        JOIN customers k ON k.mobile = c.mobile WHERE c.customer_id = photo_orders.customer_id)
+    WHERE customer_id IN (SELECT c.customer_id FROM customers c
+        JOIN customers k ON k.mobile = c.mobile AND k.customer_id < c.customer_id);
+UPDATE service_orders SET customer_id = (SELECT MIN(k.customer_id) FROM customers c
+        JOIN customers k ON k.mobile = c.mobile WHERE c.customer_id = service_orders.customer_id)
+    WHERE customer_id IN (SELECT c.customer_id FROM customers c
+        JOIN customers k ON k.mobile = c.mobile AND k.customer_id < c.customer_id);
+UPDATE bill_payment_transactions SET customer_id = (SELECT MIN(k.customer_id) FROM customers c
+        JOIN customers k ON k.mobile = c.mobile WHERE c.customer_id = bill_payment_transactions.customer_id)
+    WHERE customer_id IN (SELECT c.customer_id FROM customers c
+        JOIN customers k ON k.mobile = c.mobile AND k.customer_id < c.customer_id);
+UPDATE money_transfers SET customer_id = (SELECT MIN(k.customer_id) FROM customers c
+        JOIN customers k ON k.mobile = c.mobile WHERE c.customer_id = money_transfers.customer_id)
+    WHERE customer_id IN (SELECT c.customer_id FROM customers c
+        JOIN customers k ON k.mobile = c.mobile AND k.customer_id < c.customer_id);
+UPDATE uploads SET linked_customer_id = (SELECT MIN(k.customer_id) FROM customers c
+        JOIN customers k ON k.mobile = c.mobile WHERE c.customer_id = uploads.linked_customer_id)
+    WHERE linked_customer_id IN (SELECT c.customer_id FROM customers c
+        JOIN customers k ON k.mobile = c.mobile AND k.customer_id < c.customer_id);
+
+-- The DISTINCT derived table is materialized, which MySQL needs to delete
+-- from the table the subquery reads
+DELETE FROM customers WHERE customer_id IN (SELECT customer_id FROM (SELECT DISTINCT c.customer_id
+        FROM customers c JOIN customers k ON k.mobile = c.mobile AND k.customer_id < c.customer_id) dup);
+
+-- Replaces the plain V1 index
+DROP INDEX idx_customers_mobile ON customers;
+CREATE UNIQUE INDEX uk_customers_mobile ON customers (mobile);
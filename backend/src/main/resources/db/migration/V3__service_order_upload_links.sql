@@ -0,0 +1,4 @@
+-- service_order_uploads is created by Hibernate (ServiceOrderUpload); the upload
+-- listing looks it up by upload_id, saves replace the rows of one order
+CREATE INDEX idx_service_order_uploads_upload_id ON service_order_uploads (upload_id, service_order_id);
+CREATE INDEX idx_service_order_uploads_order ON service_order_uploads (service_order_id);
@@ -0,0 +1,18 @@
+-- Indexes that were declared on the entities (@Table indexes) and created by
+-- ddl-auto=update. Indexes are owned by these scripts only; databases that
+-- already have them from ddl-auto skip the CREATE.
+
+-- Retention: WHERE uploaded_from = ? AND mark_deleted = false AND created_at < ?
+CREATE INDEX idx_uploads_retention ON uploads (uploaded_from, mark_deleted, created_at);
+
+-- Cold upload compression picks uncompressed uploads by age
+CREATE INDEX idx_uploads_codec_created ON uploads (codec, created_at);
+
+-- Expiry of abandoned resumable upload sessions
+CREATE INDEX idx_upload_sessions_updated_at ON upload_sessions (updated_at);
+
+-- Cleanup history, newest first
+CREATE INDEX idx_cleanup_runs_started_at ON cleanup_runs (started_at);
+
+-- Hard delete of soft-deleted files past their grace period
+CREATE INDEX idx_file_delete_queue_soft_delete_time ON file_delete_queue (soft_delete_time);
@@ -0,0 +1,2 @@
+-- StorageWatcher maps events under .blobs (deduplicated storage) back to uploads by hash
+CREATE INDEX idx_uploads_file_hash ON uploads (file_hash);
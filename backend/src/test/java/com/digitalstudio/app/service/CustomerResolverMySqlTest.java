@@ -0,0 +1,106 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.dto.PhotoOrderRequest;
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.model.PhotoOrder;
+import com.digitalstudio.app.repository.CustomerRepository;
+import com.digitalstudio.app.repository.PhotoOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Concurrent creates for one new mobile, against real MySQL: the insert-or-get
+// depends on InnoDB's duplicate-key waits and REPEATABLE READ snapshots, which
+// H2 doesn't reproduce. Skipped where Docker isn't available.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class CustomerResolverMySqlTest {
+
+    private static final int THREADS = 16;
+    private static final String MOBILE = "9123456789";
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.datasource.driver-class-name", mysql::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.MySQLDialect");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS + 4);
+    }
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private PhotoOrderRepository photoOrderRepository;
+
+    // Every order lands on the same customer, and none fails on the customer insert
+    @Test
+    void concurrentOrdersForNewMobileShareOneCustomer() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<PhotoOrder>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int n = i;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return orderService.saveOrder(request("Customer " + n));
+                }));
+            }
+            Long customerId = null;
+            for (Future<PhotoOrder> result : results) {
+                PhotoOrder order = result.get(60, TimeUnit.SECONDS);
+                if (customerId == null) {
+                    customerId = order.getCustomer().getId();
+                }
+                assertEquals(customerId, order.getCustomer().getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Customer> customers = customerRepository.findByMobileContaining(MOBILE);
+        assertEquals(1, customers.size());
+        Long customerId = customers.get(0).getId();
+        assertEquals(THREADS, photoOrderRepository.findAll().stream()
+                .filter(o -> customerId.equals(o.getCustomer().getId())).count());
+    }
+
+    private static PhotoOrderRequest request(String name) {
+        PhotoOrderRequest.CustomerDTO customer = new PhotoOrderRequest.CustomerDTO();
+        customer.setMobile(MOBILE);
+        customer.setName(name);
+        PhotoOrderRequest.PaymentDTO payment = new PhotoOrderRequest.PaymentDTO();
+        payment.setMode("Cash");
+        payment.setTotal(100.0);
+        payment.setAdvance(0.0);
+        PhotoOrderRequest request = new PhotoOrderRequest();
+        request.setCustomer(customer);
+        request.setPayment(payment);
+        request.setItems(List.of());
+        return request;
+    }
+}
@@ -0,0 +1,210 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.BillPaymentTransaction;
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.model.MoneyTransfer;
+import com.digitalstudio.app.model.Payment;
+import com.digitalstudio.app.model.PhotoOrder;
+import com.digitalstudio.app.model.ServiceOrder;
+import com.digitalstudio.app.model.SourceType;
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.BillPaymentRepository;
+import com.digitalstudio.app.repository.CustomerRepository;
+import com.digitalstudio.app.repository.MoneyTransferRepository;
+import com.digitalstudio.app.repository.PhotoOrderRepository;
+import com.digitalstudio.app.repository.ServiceOrderRepository;
+import com.digitalstudio.app.repository.UploadRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Each listing page must cost a fixed number of statements however many rows it
+// carries: the page, its count, and one batched lookup each for the customers,
+// payments and uploads it references.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingQueryCountTest {
+
+    private static final int ROWS = 100;
+    private static final long MAX_STATEMENTS = 5;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private BillPaymentService billPaymentService;
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+    @Autowired
+    private ServiceOrderService serviceOrderService;
+    @Autowired
+    private ServiceOrderUploadService serviceOrderUploadService;
+    @Autowired
+    private UploadEnrichmentService uploadEnrichmentService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private UploadRepository uploadRepository;
+    @Autowired
+    private PhotoOrderRepository photoOrderRepository;
+    @Autowired
+    private BillPaymentRepository billPaymentRepository;
+    @Autowired
+    private MoneyTransferRepository moneyTransferRepository;
+    @Autowired
+    private ServiceOrderRepository serviceOrderRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void seed() {
+        // One transaction, so the photo orders' customer cascade sees managed customers
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> seedRows());
+        // Seeded behind ServiceOrderService's back, so link them the way startup does
+        serviceOrderUploadService.backfill();
+    }
+
+    private void seedRows() {
+        List<Customer> customers = new ArrayList<>();
+        List<Upload> uploads = new ArrayList<>();
+        for (int i = 0; i < 2 * ROWS; i++) {
+            Upload upload = new Upload();
+            upload.setUploadId(uploadId(i));
+            upload.setOriginalFilename("IMG_" + i + ".jpg");
+            upload.setExtension(".jpg");
+            upload.setUploadPath("/data/" + uploadId(i) + ".jpg");
+            upload.setUploadedFrom(SourceType.UPLOADS);
+            upload.setIsAvailable(true);
+            uploads.add(upload);
+        }
+        for (int i = 0; i < ROWS; i++) {
+            Customer customer = new Customer();
+            customer.setId(260101000L + i);
+            customer.setName("Customer " + i);
+            customer.setMobile(String.valueOf(9000000000L + i));
+            customers.add(customer);
+        }
+        uploadRepository.saveAll(uploads);
+        customers = customerRepository.saveAll(customers);
+
+        List<PhotoOrder> orders = new ArrayList<>();
+        List<BillPaymentTransaction> bills = new ArrayList<>();
+        List<MoneyTransfer> transfers = new ArrayList<>();
+        List<ServiceOrder> serviceOrders = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            PhotoOrder order = new PhotoOrder();
+            order.setCustomer(customers.get(i));
+            order.setPayment(payment());
+            order.setUploadId(uploadId(i) + ".jpg");
+            order.setStatus("Pending");
+            orders.add(order);
+
+            BillPaymentTransaction bill = new BillPaymentTransaction();
+            bill.setCustomer(customers.get(i));
+            bill.setPayment(payment());
+            bill.setUploadId(uploadId(i));
+            bill.setStatus("Pending");
+            bills.add(bill);
+
+            MoneyTransfer transfer = new MoneyTransfer();
+            transfer.setCustomer(customers.get(i));
+            transfer.setPayment(payment());
+            transfer.setUploadId(uploadId(i));
+            transfer.setStatus("Pending");
+            transfers.add(transfer);
+
+            ServiceOrder serviceOrder = new ServiceOrder();
+            serviceOrder.setCustomer(customers.get(i));
+            serviceOrder.setPayment(payment());
+            serviceOrder.setUploadIdsJson("[\"" + uploadId(i) + ".jpg\",\"" + uploadId(ROWS + i) + "\"]");
+            serviceOrder.setStatus("Pending");
+            serviceOrders.add(serviceOrder);
+        }
+        photoOrderRepository.saveAll(orders);
+        billPaymentRepository.saveAll(bills);
+        moneyTransferRepository.saveAll(transfers);
+        serviceOrderRepository.saveAll(serviceOrders);
+    }
+
+    @Test
+    void photoOrderListing() {
+        assertConstantStatements("orders",
+                size -> orderService.getAllOrders(null, null, null, null, null, 0, size));
+    }
+
+    @Test
+    void billPaymentListing() {
+        assertConstantStatements("bill payments",
+                size -> billPaymentService.getAllTransactions(null, null, null, null, 0, size));
+    }
+
+    @Test
+    void moneyTransferListing() {
+        assertConstantStatements("money transfers",
+                size -> moneyTransferService.getAllTransfers(null, null, null, null, 0, size));
+    }
+
+    @Test
+    void serviceOrderListing() {
+        assertConstantStatements("service orders",
+                size -> serviceOrderService.getAllOrders(null, null, null, null, 0, size));
+    }
+
+    // Uploads only referenced by a service order still get that order's customer,
+    // through the service_order_uploads link rows
+    @Test
+    void serviceOrderUploadLinks() {
+        List<Upload> uploads = uploadRepository.findAllByUploadIdIn(List.of(uploadId(ROWS), uploadId(ROWS + 7)));
+        uploadEnrichmentService.linkCustomers(uploads);
+        for (Upload upload : uploads) {
+            int i = Integer.parseInt(upload.getUploadId().substring(7)) - ROWS;
+            assertEquals(List.of(String.valueOf(260101000L + i)), upload.getCustomerIds(), upload.getUploadId());
+        }
+        assertEquals(2, uploads.size());
+    }
+
+    private void assertConstantStatements(String listing, IntFunction<Page<?>> fetch) {
+        long small = statementsFor(fetch, 10);
+        long full = statementsFor(fetch, ROWS);
+        assertTrue(full <= MAX_STATEMENTS, listing + ": " + full + " statements for a " + ROWS + "-row page");
+        assertEquals(small, full, listing + ": statement count grows with the page size");
+    }
+
+    private long statementsFor(IntFunction<Page<?>> fetch, int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Page<?> page = fetch.apply(size);
+        assertEquals(size, page.getContent().size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static Payment payment() {
+        Payment payment = new Payment();
+        payment.setTotalAmount(100.0);
+        payment.setPaymentMode("Cash");
+        return payment;
+    }
+
+    private static String uploadId(int i) {
+        return String.format("F260101%03d", i);
+    }
+}
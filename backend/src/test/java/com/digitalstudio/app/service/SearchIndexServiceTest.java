@@ -0,0 +1,88 @@
+package com.digitalstudio.app.service;
+
+import com.digitalstudio.app.model.BillPaymentTransaction;
+import com.digitalstudio.app.model.Customer;
+import com.digitalstudio.app.model.MoneyTransfer;
+import com.digitalstudio.app.model.SourceType;
+import com.digitalstudio.app.model.Upload;
+import com.digitalstudio.app.repository.BillPaymentRepository;
+import com.digitalstudio.app.repository.CustomerRepository;
+import com.digitalstudio.app.repository.MoneyTransferRepository;
+import com.digitalstudio.app.repository.UploadRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Index entries must follow deletes and customer renames, not only record saves
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class SearchIndexServiceTest {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BillPaymentRepository billPaymentRepository;
+    @Autowired
+    private MoneyTransferRepository moneyTransferRepository;
+    @Autowired
+    private UploadRepository uploadRepository;
+
+    // Renaming through one record updates the customer's other records too
+    @Test
+    void renameReindexesEveryRecordOfTheCustomer() {
+        Customer customer = new Customer();
+        customer.setId(270101001L);
+        customer.setName("Zephyrine");
+        customer.setMobile("9876500001");
+        customer = customerRepository.save(customer);
+
+        BillPaymentTransaction bill = new BillPaymentTransaction();
+        bill.setCustomer(customer);
+        bill.setStatus("Pending");
+        searchIndexService.index(billPaymentRepository.save(bill));
+        MoneyTransfer transfer = new MoneyTransfer();
+        transfer.setCustomer(customer);
+        transfer.setStatus("Pending");
+        searchIndexService.index(moneyTransferRepository.save(transfer));
+        assertEquals(2, hits("zephyrine", Set.of()));
+
+        customer.setName("Quillon");
+        customerRepository.save(customer);
+        searchIndexService.reindexCustomer(customer.getId());
+
+        assertEquals(0, hits("zephyrine", Set.of()));
+        assertEquals(2, hits("quillon", Set.of()));
+    }
+
+    @Test
+    void removedUploadIsNoLongerFound() {
+        Upload upload = new Upload();
+        upload.setUploadId("F270101001");
+        upload.setOriginalFilename("xylographic.jpg");
+        upload.setExtension(".jpg");
+        upload.setUploadPath("/data/F270101001.jpg");
+        upload.setUploadedFrom(SourceType.UPLOADS);
+        upload.setIsAvailable(true);
+        uploadRepository.persistAll(List.of(upload));
+        searchIndexService.index(upload);
+        assertEquals(1, hits("xylographic", Set.of(SearchIndexService.Type.UPLOAD)));
+
+        searchIndexService.remove(SearchIndexService.Type.UPLOAD, "F270101001");
+
+        assertEquals(0, hits("xylographic", Set.of(SearchIndexService.Type.UPLOAD)));
+    }
+
+    private int hits(String query, Set<SearchIndexService.Type> types) {
+        Map<String, Object> result = searchIndexService.search(query, types, 0, 20);
+        return (Integer) result.get("totalElements");
+    }
+}
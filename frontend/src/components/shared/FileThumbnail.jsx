@@ -11,7 +11,8 @@ export const FileThumbnail = ({
     onDownload,
     containerClass = "",
     iconClass = "h-6 w-6 text-red-500",
-    imgClass = "w-full h-full object-cover"
+    imgClass = "w-full h-full object-cover",
+    thumbWidth = 128
 }) => {
     // Determine if the file is truly available for interaction
     // We treat 'undefined' or 'null' as available (legacy or not yet checked)
@@ -37,8 +38,10 @@ export const FileThumbnail = ({
                         <FileText className={iconClass} />
                     ) : (
                         <img
-                            src={`/api/files/${fileId}`}
+                            // Server-side thumbnail (falls back to the original for non-images)
+                            src={`/api/files/${fileId}/thumb?w=${thumbWidth}`}
                             alt="Preview"
+                            loading="lazy"
                             className={imgClass}
                             onError={(e) => {
                                 // Fallback if image fails to load despite being marked available
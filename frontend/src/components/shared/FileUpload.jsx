@@ -82,9 +82,8 @@ export function FileUpload({ file, onUpload, onRemove, source, instantUpload = t
 
             setUploading(true);
             try {
-                // Upload One by One or Parallel
-                const results = await Promise.all(selectedFiles.map(f => fileService.upload(f, source)));
-                const ids = results.map(r => r.uploadId);
+                // All selected files in one request
+                const ids = await fileService.uploadBatch(selectedFiles, source);
                 onUpload(multiple ? ids : ids[0]);
             } catch (err) {
                 console.error(err);
@@ -153,8 +152,7 @@ export function FileUpload({ file, onUpload, onRemove, source, instantUpload = t
 
             setUploading(true);
             try {
-                const results = await Promise.all(finalFiles.map(f => fileService.upload(f, source)));
-                const ids = results.map(r => r.uploadId);
+                const ids = await fileService.uploadBatch(finalFiles, source);
                 onUpload(multiple ? ids : ids[0]);
             } catch (err) {
                 console.error(err);
@@ -141,14 +141,11 @@ export function ServiceOrderModal({ isOpen, onClose, onSave, order = null }) {
                 await loadServiceItems();
             }
 
-            // Handle Files: Upload only if they are File objects
-            const finalDocIds = await Promise.all(documentIds.map(async (doc) => {
-                if (doc instanceof File) {
-                    const res = await fileService.upload(doc, "Service");
-                    return res.uploadId;
-                }
-                return doc; // Existing ID
-            }));
+            // Handle Files: Upload only if they are File objects (all new ones in one request)
+            const newDocs = documentIds.filter(doc => doc instanceof File);
+            const newIds = newDocs.length > 0 ? await fileService.uploadBatch(newDocs, "Service") : [];
+            let next = 0;
+            const finalDocIds = documentIds.map(doc => doc instanceof File ? newIds[next++] : doc); // Existing ID kept
 
             const payload = {
                 customer: {
@@ -65,17 +65,15 @@ export function UnifiedUploadModal({ isOpen, onClose, onSuccess }) {
         setLoading(true);
 
         try {
+            // 1. Upload all new files in one request
+            const newFiles = files.filter(fileItem => fileItem instanceof File);
+            const newIds = newFiles.length > 0 ? await fileService.uploadBatch(newFiles, "Uploads") : [];
+            let next = 0;
+
             // Process Each File
             const promises = files.map(async (fileItem) => {
-                // 1. Upload File
-                let uploadId = "";
-
-                if (fileItem instanceof File) {
-                    const uploaded = await fileService.upload(fileItem, "Uploads");
-                    uploadId = uploaded.uploadId;
-                } else {
-                    uploadId = fileItem; // ID already (if drag-drop logic somehow passed IDs or manual mode passed IDs)
-                }
+                // ID already (if drag-drop logic somehow passed IDs or manual mode passed IDs)
+                const uploadId = fileItem instanceof File ? newIds[next++] : fileItem;
 
                 // 2. Link Customer (if enabled)
                 if (includeCustomer && uploadId && customer.id) {
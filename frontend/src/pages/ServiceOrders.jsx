@@ -307,6 +307,7 @@ export default function ServiceOrders() {
                                                                                         isFileAvailable={isAvailable}
                                                                                         isPdf={id.toLowerCase().endsWith('.pdf')}
                                                                                         containerClass="w-full h-16"
+                                                                                        thumbWidth={256}
                                                                                         iconClass="w-8 h-8 text-red-500"
                                                                                         onView={(fid) => window.open(`/api/files/${fid}`, '_blank')}
                                                                                         onDownload={(fid) => {
@@ -12,6 +12,7 @@ export default function SystemLogs() {
     const [isPaused, setIsPaused] = useState(false);
     const logsEndRef = useRef(null);
     const eventSourceRef = useRef(null);
+    const lastSeqRef = useRef(0); // Last received sequence, used to resume after reconnect
 
     const [maxLogs, setMaxLogs] = useState(50000);
 
@@ -49,19 +50,42 @@ export default function SystemLogs() {
     const connectToLogs = () => {
         if (eventSourceRef.current) eventSourceRef.current.close();
 
-        const sse = new EventSource("/api/logs/stream");
+        const since = lastSeqRef.current;
+        const sse = new EventSource(since > 0 ? `/api/logs/stream?since=${since}` : "/api/logs/stream");
         eventSourceRef.current = sse;
 
         sse.onopen = () => setIsConnected(true);
 
         sse.addEventListener("history", (e) => {
             const history = JSON.parse(e.data);
-            setLogs(history);
+            if (history.length > 0) lastSeqRef.current = history[history.length - 1].seq;
+            // On a resume the history only holds what was missed, so keep what is on screen
+            if (since > 0) {
+                setLogs((prev) => [...prev, ...history].slice(-maxLogs));
+            } else {
+                setLogs(history);
+            }
         });
 
+        // Server sends batches of entries
         sse.addEventListener("log", (e) => {
-            const log = JSON.parse(e.data);
-            setLogs((prev) => [...prev, log].slice(-maxLogs)); // Dynamic limit
+            const batch = JSON.parse(e.data);
+            if (batch.length === 0) return;
+            lastSeqRef.current = batch[batch.length - 1].seq;
+            setLogs((prev) => [...prev, ...batch].slice(-maxLogs)); // Dynamic limit
+        });
+
+        // This tab fell behind and the server dropped some entries for it
+        sse.addEventListener("overflow", (e) => {
+            const { dropped } = JSON.parse(e.data);
+            const marker = {
+                seq: lastSeqRef.current,
+                timestamp: new Date().toISOString(),
+                level: "WARN",
+                message: `--- ${dropped} log entries skipped (viewer too slow) ---`,
+                thread: "System"
+            };
+            setLogs((prev) => [...prev, marker].slice(-maxLogs));
         });
 
         sse.onerror = () => {
@@ -29,9 +29,11 @@ export const api = {
         return response.json();
     },
     put: async (endpoint, data) => {
+        // FormData and Blobs (file chunks) go as-is, anything else as JSON
         const isFormData = data instanceof FormData;
-        const headers = isFormData ? {} : { 'Content-Type': 'application/json' };
-        const body = isFormData ? data : JSON.stringify(data);
+        const isBlob = data instanceof Blob;
+        const headers = isFormData ? {} : { 'Content-Type': isBlob ? 'application/octet-stream' : 'application/json' };
+        const body = isFormData || isBlob ? data : JSON.stringify(data);
 
         const response = await fetch(`${API_BASE_URL}${endpoint}`, {
             method: 'PUT',
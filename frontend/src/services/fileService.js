@@ -1,7 +1,14 @@
 import { api } from "./api";
 
+// Above this size files go through resumable chunked upload sessions
+const CHUNKED_THRESHOLD = 40 * 1024 * 1024;
+const CHUNK_RETRIES = 5;
+
 export const fileService = {
     upload: async (file, source) => {
+        if (file.size > CHUNKED_THRESHOLD) {
+            return await fileService.uploadResumable(file, source);
+        }
         const formData = new FormData();
         formData.append("file", file);
         if (source) formData.append("source", source);
@@ -9,6 +16,50 @@ export const fileService = {
         return await api.post("/files/upload", formData);
     },
 
+    // Several files in one request; resolves to the upload IDs in the same order.
+    // Fails if any single file failed; the files that did upload are then deleted
+    // again (soft delete, picked up by cleanup) so they don't linger unreferenced.
+    uploadBatch: async (files, source) => {
+        if (files.length === 1) {
+            const res = await fileService.upload(files[0], source);
+            return [res.uploadId];
+        }
+        const formData = new FormData();
+        files.forEach(file => formData.append("files", file));
+        if (source) formData.append("source", source);
+
+        const res = await api.post("/files/upload/batch", formData);
+        const failed = res.results.filter(r => r.error);
+        if (failed.length > 0) {
+            const uploaded = res.results.filter(r => !r.error).map(r => r.uploadId);
+            await Promise.allSettled(uploaded.map(id => fileService.delete(id, "Batch upload failed")));
+            const error = new Error(failed.map(r => `${r.originalName}: ${r.error}`).join(", "));
+            error.results = res.results;
+            throw error;
+        }
+        return res.results.map(r => r.uploadId);
+    },
+
+    // init -> PUT each missing chunk (retried on network errors) -> complete
+    uploadResumable: async (file, source, onProgress) => {
+        let session = await api.post("/files/upload/sessions", { filename: file.name, size: file.size, source });
+        for (const index of session.missingChunks) {
+            const offset = index * session.chunkSize;
+            const chunk = file.slice(offset, Math.min(offset + session.chunkSize, file.size));
+            for (let attempt = 1; ; attempt++) {
+                try {
+                    session = await api.put(`/files/upload/sessions/${session.sessionId}?offset=${offset}`, chunk);
+                    break;
+                } catch (err) {
+                    if (attempt >= CHUNK_RETRIES) throw err;
+                    await new Promise(resolve => setTimeout(resolve, 1000 * attempt));
+                }
+            }
+            if (onProgress) onProgress(session.receivedBytes / session.totalSize);
+        }
+        return await api.post(`/files/upload/sessions/${session.sessionId}/complete`, {});
+    },
+
     getAll: async () => {
         return await api.get("/files");
     },